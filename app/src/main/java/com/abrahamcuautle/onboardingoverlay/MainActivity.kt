@@ -9,18 +9,23 @@ class MainActivity : AppCompatActivity() {
         super.onCreate(savedInstanceState)
         setContentView(R.layout.activity_main)
 
-        findViewById<View>(R.id.btn).setOnClickListener {
-            OnboardingOverlay.Builder(this)
-                .setBackgroundColor(android.R.color.black)
-                .setMode(OnboardingOverlay.Mode.CIRCLE)
-                .setTitle("What's an onboarding?")
-                .setDescription("An onboarding experience is a way to introduce users to a new product, app, or feature.")
-                .setTextButton("Got it!")
-                .build()
-                .show(findViewById(R.id.btn))
+        //Taps made while an overlay is showing are queued, repeated taps on a button are dropped
+        val manager = OnboardingOverlayManager.of(findViewById(R.id.btn))
+
+        //Built while the screen is idle, the click only has to show it
+        val btn = findViewById<View>(R.id.btn)
+        val preparedOverlay = OnboardingOverlay.Builder(this)
+            .setBackgroundColor(android.R.color.black)
+            .setMode(OnboardingOverlay.Mode.CIRCLE)
+            .setTitle("What's an onboarding?")
+            .setDescription("An onboarding experience is a way to introduce users to a new product, app, or feature.")
+            .setTextButton("Got it!")
+            .prepare(btn)
+        btn.setOnClickListener {
+            preparedOverlay.show(btn)
         }
 
-        findViewById<View>(R.id.btn1).setOnClickListener {
+        findViewById<View>(R.id.btn1).setOnClickListener { view ->
             OnboardingOverlay.Builder(this)
                     .setBackgroundColor(R.color.design_default_color_secondary_variant)
                     .setMode(OnboardingOverlay.Mode.CIRCLE)
@@ -28,10 +33,10 @@ class MainActivity : AppCompatActivity() {
                     .setDescription("An onboarding experience is a way to introduce users to a new product, app, or feature.")
                     .setTextButton("Got it!")
                         .build()
-                    .show(findViewById(R.id.btn1))
+                        .let { manager.enqueue(it, view) }
         }
 
-        findViewById<View>(R.id.btn2).setOnClickListener {
+        findViewById<View>(R.id.btn2).setOnClickListener { view ->
             OnboardingOverlay.Builder(this)
                     .setBackgroundColor(R.color.purple_200)
                     .setMode(OnboardingOverlay.Mode.RECTANGLE)
@@ -39,10 +44,10 @@ class MainActivity : AppCompatActivity() {
                     .setDescription("An onboarding experience is a way to introduce users to a new product, app, or feature.")
                     .setTextButton("Got it!")
                     .build()
-                    .show(findViewById(R.id.btn2))
+                    .let { manager.enqueue(it, view) }
         }
 
-        findViewById<View>(R.id.btn3).setOnClickListener {
+        findViewById<View>(R.id.btn3).setOnClickListener { view ->
             OnboardingOverlay.Builder(this)
                     .setBackgroundColor(R.color.design_default_color_primary_variant)
                     .setMode(OnboardingOverlay.Mode.RECTANGLE)
@@ -50,18 +55,19 @@ class MainActivity : AppCompatActivity() {
                     .setDescription("An onboarding experience is a way to introduce users to a new product, app, or feature.")
                     .setTextButton("Got it!")
                     .build()
-                    .show(findViewById(R.id.btn3))
+                    .let { manager.enqueue(it, view) }
         }
 
-        findViewById<View>(R.id.btn4).setOnClickListener {
+        findViewById<View>(R.id.btn4).setOnClickListener { view ->
             OnboardingOverlay.Builder(this)
                 .setBackgroundColor(android.R.color.holo_red_light)
                 .setMode(OnboardingOverlay.Mode.CIRCLE)
                 .setTitle("What's an onboarding?")
                 .setDescription("An onboarding experience is a way to introduce users to a new product, app, or feature.")
                 .setTextButton("Got it!")
+                .showOnce("btn4")
                 .build()
-                .show(findViewById(R.id.btn4))
+                .let { manager.enqueue(it, view) }
         }
 
     }
@@ -0,0 +1,69 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Geometry work done when an overlay is bound and on every frame of the pulse and move
+ * animations.
+ */
+@State(Scope.Thread)
+public class CutoutGeometryBenchmark {
+
+    private static final float DENSITY = 2.625f;
+
+    @Param({"CIRCLE", "RECTANGLE"})
+    public String mode;
+
+    private final CutoutGeometry mCutout = new CutoutGeometry();
+
+    private final CutoutGeometry mFrom = new CutoutGeometry();
+
+    private final CutoutGeometry mTo = new CutoutGeometry();
+
+    private final int[] mBounds = new int[4];
+
+    private Dimensions mDimensions;
+
+    private float mMaxPulse;
+
+    private float mFraction;
+
+    @Setup
+    public void setUp() {
+        mDimensions = Dimensions.get(DENSITY);
+        mMaxPulse = mDimensions.pulse;
+        mFrom.setCircle(100, 200, 150, 150, mDimensions.circleSpacing);
+        mTo.setRectangle(600, 1500, 300, 120, mDimensions.rectSpacing, mDimensions.rectCornerRadius);
+    }
+
+    @Benchmark
+    public void bind(Blackhole blackhole) {
+        if ("CIRCLE".equals(mode)) {
+            mCutout.setCircle(420, 980, 150, 150, mDimensions.circleSpacing);
+        } else {
+            mCutout.setRectangle(420, 980, 300, 120, mDimensions.rectSpacing, mDimensions.rectCornerRadius);
+        }
+        mCutout.getPulseBounds(mMaxPulse, mBounds);
+        blackhole.consume(mBounds);
+    }
+
+    @Benchmark
+    public float pulseFrame() {
+        mFraction = mFraction >= 1f ? 0f : mFraction + 0.016f;
+        return mCutout.getCornerRadius(mFraction * mMaxPulse);
+    }
+
+    @Benchmark
+    public void moveFrame(Blackhole blackhole) {
+        mFraction = mFraction >= 1f ? 0f : mFraction + 0.016f;
+        mCutout.lerp(mFrom, mTo, mFraction);
+        blackhole.consume(mCutout.left);
+        blackhole.consume(mCutout.cornerRadius);
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * dp to px conversion, done for every spacing when the table of a density is built, and the
+ * lookup of that table done by every overlay.
+ */
+@State(Scope.Thread)
+public class DimensionBenchmark {
+
+    @Param({"1.0", "2.625", "3.5"})
+    public float density;
+
+    private int mValue = 30;
+
+    @Benchmark
+    public int dpToPx() {
+        mValue = mValue == 30 ? 8 : 30;
+        return Dimensions.dp(mValue, density);
+    }
+
+    @Benchmark
+    public Dimensions lookup() {
+        return Dimensions.get(density);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Solves the placement of a target on every cell of a grid laid over the screen, which covers
+ * the four sides the content can end up on.
+ */
+@State(Scope.Thread)
+public class TooltipPlacementBenchmark {
+
+    private static final int GRID = 5;
+
+    private static final int TARGET_SIZE = 150;
+
+    private static final int CONTENT_HEIGHT = 400;
+
+    @Param({"720x1280", "1080x1920", "1440x3120", "1920x1080"})
+    public String screen;
+
+    @Param({"true", "false"})
+    public boolean isCircle;
+
+    private final TooltipPlacement mPlacement = new TooltipPlacement();
+
+    private final Dimensions mDimensions = Dimensions.get(2.625f);
+
+    private int mScreenWidth;
+
+    private int mScreenHeight;
+
+    private final int[] mTargetX = new int[GRID];
+
+    private final int[] mTargetY = new int[GRID];
+
+    @Setup
+    public void setUp() {
+        String[] size = screen.split("x");
+        mScreenWidth = Integer.parseInt(size[0]);
+        mScreenHeight = Integer.parseInt(size[1]);
+        for (int i = 0; i < GRID; i++) {
+            mTargetX[i] = (mScreenWidth - TARGET_SIZE) * i / (GRID - 1);
+            mTargetY[i] = (mScreenHeight - TARGET_SIZE) * i / (GRID - 1);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GRID * GRID)
+    public void solve(Blackhole blackhole) {
+        for (int x = 0; x < GRID; x++) {
+            for (int y = 0; y < GRID; y++) {
+                mPlacement.solve(
+                        mScreenWidth,
+                        mScreenHeight,
+                        mTargetX[x],
+                        mTargetY[y],
+                        TARGET_SIZE,
+                        TARGET_SIZE,
+                        CONTENT_HEIGHT,
+                        isCircle,
+                        mDimensions);
+                blackhole.consume(mPlacement.gravity);
+                blackhole.consume(mPlacement.width);
+                blackhole.consume(mPlacement.topMargin);
+                blackhole.consume(mPlacement.bottomMargin);
+            }
+        }
+    }
+
+    @Benchmark
+    public int contentWidth() {
+        return TooltipPlacement.getContentWidth(mScreenWidth, mScreenHeight, mDimensions);
+    }
+
+}
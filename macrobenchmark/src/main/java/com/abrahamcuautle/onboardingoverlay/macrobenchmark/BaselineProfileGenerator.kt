@@ -0,0 +1,29 @@
+package com.abrahamcuautle.onboardingoverlay.macrobenchmark
+
+import androidx.benchmark.macro.ExperimentalBaselineProfilesApi
+import androidx.benchmark.macro.junit4.BaselineProfileRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Regenerates the rules of onboardingoverlay/src/main/baseline-prof.txt. Needs a rooted device or
+ * a userdebug emulator. Only the library classes are kept, the sample app shares their package:
+ *
+ * grep "com/abrahamcuautle/onboardingoverlay/[A-Z]" BaselineProfileGenerator_generate-baseline-prof.txt | grep -v MainActivity
+ */
+@OptIn(ExperimentalBaselineProfilesApi::class)
+@RunWith(AndroidJUnit4::class)
+class BaselineProfileGenerator {
+
+    @get:Rule
+    val baselineProfileRule = BaselineProfileRule()
+
+    @Test
+    fun generate() = baselineProfileRule.collectBaselineProfile(packageName = TARGET_PACKAGE) {
+        pressHome()
+        startActivityAndWait()
+        showAndDismissOverlays()
+    }
+}
@@ -0,0 +1,27 @@
+package com.abrahamcuautle.onboardingoverlay.macrobenchmark
+
+import androidx.benchmark.macro.MacrobenchmarkScope
+import androidx.test.uiautomator.By
+import androidx.test.uiautomator.Until
+
+const val TARGET_PACKAGE = "com.abrahamcuautle.onboardingoverlay"
+
+// Reference views of the sample app, one overlay per corner. The centered btn4 shows only once per
+// install, from the second iteration on its tap shows nothing and back would close the Activity
+private val TARGETS = listOf("btn", "btn1", "btn2", "btn3")
+
+private const val TIMEOUT = 2_000L
+
+/**
+ * Taps every reference view of MainActivity and dismisses its overlay with the back key, so each
+ * iteration goes through window add, circular reveal, pulse and close reveal.
+ */
+fun MacrobenchmarkScope.showAndDismissOverlays() {
+    TARGETS.forEach { id ->
+        device.wait(Until.hasObject(By.res(packageName, id)), TIMEOUT)
+        device.findObject(By.res(packageName, id)).click()
+        device.waitForIdle()
+        device.pressBack()
+        device.waitForIdle()
+    }
+}
@@ -0,0 +1,42 @@
+package com.abrahamcuautle.onboardingoverlay.macrobenchmark
+
+import androidx.benchmark.macro.CompilationMode
+import androidx.benchmark.macro.FrameTimingMetric
+import androidx.benchmark.macro.StartupMode
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Frame timing from the tap on a reference view to the overlay being dismissed. Comparing both
+ * compilation modes shows what the baseline profile shipped in the library saves on the first
+ * overlays of a fresh process.
+ */
+@RunWith(AndroidJUnit4::class)
+class OverlayShowBenchmark {
+
+    @get:Rule
+    val benchmarkRule = MacrobenchmarkRule()
+
+    @Test
+    fun showOverlayNoCompilation() = showOverlay(CompilationMode.None())
+
+    @Test
+    fun showOverlayBaselineProfile() = showOverlay(CompilationMode.Partial())
+
+    private fun showOverlay(compilationMode: CompilationMode) = benchmarkRule.measureRepeated(
+        packageName = TARGET_PACKAGE,
+        metrics = listOf(FrameTimingMetric()),
+        compilationMode = compilationMode,
+        iterations = 10,
+        startupMode = StartupMode.COLD,
+        setupBlock = {
+            pressHome()
+            startActivityAndWait()
+        }
+    ) {
+        showAndDismissOverlays()
+    }
+}
@@ -0,0 +1,106 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+/**
+ * Picks how much of the overlay is animated from the device and the pulse's frame times, the
+ * tier of a host only ever goes down.
+ */
+final class AdaptiveTier {
+
+    //Frames measured before deciding whether to drop a tier
+    static final int SAMPLE_FRAMES = 30;
+
+    //A frame that took this many frame intervals missed at least one vsync
+    private static final float JANK_INTERVALS = 1.5f;
+
+    private static final float REDUCED_JANK_RATIO = 0.2f;
+
+    private static final float MINIMAL_JANK_RATIO = 0.5f;
+
+    @OnboardingOverlay.Tier
+    private int mDeviceTier = OnboardingOverlay.Tier.FULL;
+
+    @OnboardingOverlay.Tier
+    private int mMeasuredTier = OnboardingOverlay.Tier.FULL;
+
+    private float mFrameIntervalMillis = 1000f / 60;
+
+    private int mFrames;
+
+    private int mJankyFrames;
+
+    /**
+     * @param animatorScale the animator duration scale of the system, 0 when animations are off
+     * @param refreshRate   frames per second of the display showing the overlay
+     */
+    void setDevice(boolean isLowRam, float animatorScale, float refreshRate) {
+        mDeviceTier = isLowRam || animatorScale == 0
+                ? OnboardingOverlay.Tier.REDUCED
+                : OnboardingOverlay.Tier.FULL;
+        if (refreshRate > 0) {
+            mFrameIntervalMillis = 1000f / refreshRate;
+        }
+    }
+
+    @OnboardingOverlay.Tier
+    int getTier() {
+        return Math.max(mDeviceTier, mMeasuredTier);
+    }
+
+    /**
+     * @return whether a frame that took this long missed at least one vsync
+     */
+    boolean isJank(long frameMillis) {
+        return frameMillis > mFrameIntervalMillis * JANK_INTERVALS;
+    }
+
+    /**
+     * @param frameMillis time since the previous frame of an animation
+     * @return whether the tier dropped
+     */
+    boolean onFrame(long frameMillis) {
+        if (mMeasuredTier == OnboardingOverlay.Tier.MINIMAL) {
+            return false;
+        }
+        mFrames++;
+        if (isJank(frameMillis)) {
+            mJankyFrames++;
+        }
+        if (mFrames < SAMPLE_FRAMES) {
+            return false;
+        }
+
+        float jankRatio = (float) mJankyFrames / mFrames;
+        mFrames = 0;
+        mJankyFrames = 0;
+        int previousTier = getTier();
+        if (jankRatio >= MINIMAL_JANK_RATIO) {
+            mMeasuredTier = OnboardingOverlay.Tier.MINIMAL;
+        } else if (jankRatio >= REDUCED_JANK_RATIO) {
+            mMeasuredTier = Math.max(mMeasuredTier, OnboardingOverlay.Tier.REDUCED);
+        }
+        return getTier() != previousTier;
+    }
+
+    /**
+     * Starts a new sample, frames of the previous overlay do not count for the next one.
+     */
+    void resetSample() {
+        mFrames = 0;
+        mJankyFrames = 0;
+    }
+
+    /**
+     * @return the duration of a reveal in the given tier
+     */
+    static long getRevealDuration(@OnboardingOverlay.Tier int tier, long duration) {
+        switch (tier) {
+            case OnboardingOverlay.Tier.REDUCED:
+                return duration / 2;
+            case OnboardingOverlay.Tier.MINIMAL:
+                return 0;
+            default:
+                return duration;
+        }
+    }
+
+}
@@ -0,0 +1,465 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.AnimationUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.tracing.Trace;
+
+/**
+ * Draws the scrim in two parts. The scrim around the pulse bounds is static and only redrawn when
+ * the target changes. The pulse bounds are drawn by a small child, so every pulse frame only
+ * repaints a few dp around the cutout instead of the whole screen. With several targets the
+ * pulse bounds cover all of their cutouts, which are punched out in a single draw.
+ */
+class BackgroundOverlayView extends ViewGroup {
+
+    interface OnPulseFrameListener {
+        /**
+         * @param frameMillis time since the previous pulse frame
+         */
+        void onPulseFrame(long frameMillis);
+    }
+
+    private static final long MOVE_DURATION = 300L;
+
+    private final Paint mPaintReference = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final Paint mPaintBackground = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final CutoutView mCutoutView;
+
+    @Nullable
+    private OnboardingOverlay mOverlay;
+
+    private boolean mHasCutout;
+
+    //One cutout per target, only the first mCutoutCount are in use
+    private CutoutGeometry[] mCutouts = new CutoutGeometry[0];
+
+    private CutoutGeometry[] mFromCutouts = new CutoutGeometry[0];
+
+    private CutoutGeometry[] mToCutouts = new CutoutGeometry[0];
+
+    private int mCutoutCount;
+
+    private int mToCutoutCount;
+
+    //Pulse bounds in this view's coordinates: left, top, right, bottom
+    private final int[] mBounds = new int[4];
+
+    private final int[] mToBounds = new int[4];
+
+    private float mPulse;
+
+    //Read from the dimensions of the host's density
+    private int mMaxPulse;
+
+    private int mRectSpacing;
+
+    private int mRectCornerRadius;
+
+    private int mCircleSpacing;
+
+    //Whether the Activity hosting the overlay is at least started
+    private boolean mIsHostStarted = true;
+
+    private boolean mIsPulseEnabled = true;
+
+    //Frame time of the previous pulse frame, -1 until the pulse has drawn a frame
+    private long mLastPulseFrameTime = -1;
+
+    @Nullable
+    private OnPulseFrameListener mOnPulseFrameListener;
+
+    private ValueAnimator valueAnimator;
+
+    private ValueAnimator moveAnimator;
+
+    BackgroundOverlayView(Context context, @NonNull Dimensions dimensions) {
+        super(context);
+        setDimensions(dimensions);
+        setWillNotDraw(false);
+        mPaintReference.setColor(Color.RED);
+        mPaintReference.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_OUT));
+        mCutoutView = new CutoutView(context);
+        addView(mCutoutView);
+        setUpPulseAnimator();
+        setUpMoveAnimator();
+    }
+
+    /**
+     * @param animate moves the current cutout to the new target instead of jumping to it
+     */
+    void bind(@NonNull OnboardingOverlay overlay, boolean animate) {
+        mOverlay = overlay;
+        if (mPaintBackground.getColor() != overlay.getBackgroundColor()) {
+            mPaintBackground.setColor(overlay.getBackgroundColor());
+            invalidate();
+        }
+        moveAnimator.cancel();
+
+        int targetCount = overlay.getTargetCount();
+        ensureCapacity(targetCount);
+        mToCutoutCount = 0;
+        for (int i = 0; i < targetCount; i++) {
+            View target = overlay.getTargetView(i);
+            if (target != null && ViewCompat.isAttachedToWindow(target)) {
+                setCutout(mToCutouts[mToCutoutCount++], overlay.getTargetMode(i),
+                        overlay.getTargetX(i), overlay.getTargetY(i),
+                        target.getWidth(), target.getHeight());
+            }
+        }
+        if (mToCutoutCount == 0) {
+            mHasCutout = false;
+            mCutoutCount = 0;
+            invalidate();
+            updatePulse();
+            return;
+        }
+        CutoutGeometry.getPulseBounds(mToCutouts, mToCutoutCount, mMaxPulse, mToBounds);
+
+        if (animate && mHasCutout && mCutoutCount == mToCutoutCount) {
+            //The child covers both targets while moving, so the move never relayouts
+            for (int i = 0; i < mCutoutCount; i++) {
+                mFromCutouts[i].set(mCutouts[i]);
+            }
+            CutoutGeometry.getPulseBounds(mCutouts, mCutoutCount, mMaxPulse, mBounds);
+            mBounds[0] = Math.min(mBounds[0], mToBounds[0]);
+            mBounds[1] = Math.min(mBounds[1], mToBounds[1]);
+            mBounds[2] = Math.max(mBounds[2], mToBounds[2]);
+            mBounds[3] = Math.max(mBounds[3], mToBounds[3]);
+            moveAnimator.start();
+        } else {
+            for (int i = 0; i < mToCutoutCount; i++) {
+                mCutouts[i].set(mToCutouts[i]);
+            }
+            mCutoutCount = mToCutoutCount;
+            System.arraycopy(mToBounds, 0, mBounds, 0, 4);
+        }
+        mHasCutout = true;
+        layoutCutoutView();
+        mCutoutView.invalidate();
+        updatePulse();
+    }
+
+    private void setCutout(@NonNull CutoutGeometry cutout, @OnboardingOverlay.Mode int mode,
+                           int x, int y, int width, int height) {
+        switch (mode) {
+            case OnboardingOverlay.Mode.CIRCLE:
+                cutout.setCircle(x, y, width, height, mCircleSpacing);
+                break;
+            case OnboardingOverlay.Mode.RECTANGLE:
+                cutout.setRectangle(x, y, width, height, mRectSpacing, mRectCornerRadius);
+                break;
+        }
+    }
+
+    /**
+     * Cutouts are only allocated when an overlay with more targets than before is bound.
+     */
+    private void ensureCapacity(int count) {
+        if (mCutouts.length >= count) {
+            return;
+        }
+        mCutouts = grow(mCutouts, count);
+        mFromCutouts = grow(mFromCutouts, count);
+        mToCutouts = grow(mToCutouts, count);
+    }
+
+    @NonNull
+    private static CutoutGeometry[] grow(@NonNull CutoutGeometry[] cutouts, int count) {
+        CutoutGeometry[] grown = new CutoutGeometry[count];
+        System.arraycopy(cutouts, 0, grown, 0, cutouts.length);
+        for (int i = cutouts.length; i < count; i++) {
+            grown[i] = new CutoutGeometry();
+        }
+        return grown;
+    }
+
+    void unbind() {
+        mOverlay = null;
+        mHasCutout = false;
+        moveAnimator.cancel();
+        updatePulse();
+    }
+
+    /**
+     * Takes effect from the next bind.
+     */
+    void setDimensions(@NonNull Dimensions dimensions) {
+        mMaxPulse = dimensions.pulse;
+        mRectSpacing = dimensions.rectSpacing;
+        mRectCornerRadius = dimensions.rectCornerRadius;
+        mCircleSpacing = dimensions.circleSpacing;
+    }
+
+    void setHostStarted(boolean isHostStarted) {
+        mIsHostStarted = isHostStarted;
+        updatePulse();
+    }
+
+    void setPulseEnabled(boolean isPulseEnabled) {
+        mIsPulseEnabled = isPulseEnabled;
+        updatePulse();
+    }
+
+    /**
+     * Without anti-aliasing the cutouts get jagged edges, but are cheaper to rasterize.
+     */
+    void setAntiAlias(boolean antiAlias) {
+        if (mPaintBackground.isAntiAlias() == antiAlias) {
+            return;
+        }
+        mPaintBackground.setAntiAlias(antiAlias);
+        mPaintReference.setAntiAlias(antiAlias);
+        invalidate();
+        mCutoutView.invalidate();
+    }
+
+    void setOnPulseFrameListener(@Nullable OnPulseFrameListener onPulseFrameListener) {
+        mOnPulseFrameListener = onPulseFrameListener;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updatePulse();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        //Nothing may keep ticking, or holding this view, once the window is gone
+        moveAnimator.cancel();
+        updatePulse();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        updatePulse();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updatePulse();
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updatePulse();
+    }
+
+    /**
+     * The pulse only runs while it is enabled and somebody can see it: the overlay is bound,
+     * attached, shown, focused and its Activity is started. Otherwise it is cancelled so it stops
+     * requesting frames.
+     */
+    private void updatePulse() {
+        if (valueAnimator == null) {
+            //Called by the View constructor before the animators exist
+            return;
+        }
+        boolean shouldPulse = mHasCutout
+                && mIsPulseEnabled
+                && mIsHostStarted
+                && isAttachedToWindow()
+                && isShown()
+                && hasWindowFocus();
+        if (shouldPulse && !valueAnimator.isStarted()) {
+            //The time the pulse was stopped is not a frame
+            mLastPulseFrameTime = -1;
+            valueAnimator.start();
+        } else if (!shouldPulse && valueAnimator.isStarted()) {
+            valueAnimator.cancel();
+            mPulse = 0;
+            mCutoutView.invalidate();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(
+                getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                getDefaultSize(getSuggestedMinimumHeight(), heightMeasureSpec));
+        mCutoutView.measure(
+                MeasureSpec.makeMeasureSpec(mBounds[2] - mBounds[0], MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(mBounds[3] - mBounds[1], MeasureSpec.EXACTLY));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        mCutoutView.layout(mBounds[0], mBounds[1], mBounds[2], mBounds[3]);
+    }
+
+    private void layoutCutoutView() {
+        //Laying out the child directly skips a layout pass of the whole overlay. The scrim around
+        //it is re-recorded, that is four rects, the pulse repaints only the child
+        mCutoutView.measure(
+                MeasureSpec.makeMeasureSpec(mBounds[2] - mBounds[0], MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(mBounds[3] - mBounds[1], MeasureSpec.EXACTLY));
+        mCutoutView.layout(mBounds[0], mBounds[1], mBounds[2], mBounds[3]);
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        Trace.beginSection("BackgroundOverlayView#onDraw");
+        try {
+            drawScrim(canvas);
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void drawScrim(Canvas canvas) {
+        if (mOverlay == null) {
+            return;
+        }
+        int width = getWidth();
+        int height = getHeight();
+        if (!mHasCutout) {
+            canvas.drawRect(0, 0, width, height, mPaintBackground);
+            return;
+        }
+        //Static scrim around the pulse bounds, the bounds themselves are drawn by mCutoutView
+        canvas.drawRect(0, 0, width, mBounds[1], mPaintBackground);
+        canvas.drawRect(0, mBounds[3], width, height, mPaintBackground);
+        canvas.drawRect(0, mBounds[1], mBounds[0], mBounds[3], mPaintBackground);
+        canvas.drawRect(mBounds[2], mBounds[1], width, mBounds[3], mPaintBackground);
+    }
+
+    private void setUpPulseAnimator() {
+        valueAnimator = ValueAnimator.ofFloat(0f, 1f);
+        valueAnimator.addUpdateListener(animation -> onPulseUpdate(animation.getAnimatedFraction()));
+        valueAnimator.setRepeatCount(ValueAnimator.INFINITE);
+        valueAnimator.setRepeatMode(ValueAnimator.REVERSE);
+        valueAnimator.setDuration(500L);
+    }
+
+    /**
+     * Runs on every pulse frame, it must not allocate.
+     */
+    void onPulseUpdate(float fraction) {
+        mPulse = fraction * mMaxPulse;
+        //Only the child covering the pulse bounds is re-recorded and repainted
+        mCutoutView.invalidate();
+
+        //The pulse animates every frame, its frame times tell whether the device keeps up
+        long frameTime = AnimationUtils.currentAnimationTimeMillis();
+        if (mLastPulseFrameTime != -1 && mOnPulseFrameListener != null) {
+            mOnPulseFrameListener.onPulseFrame(frameTime - mLastPulseFrameTime);
+        }
+        mLastPulseFrameTime = frameTime;
+    }
+
+    private void setUpMoveAnimator() {
+        moveAnimator = ValueAnimator.ofFloat(0f, 1f);
+        moveAnimator.addUpdateListener(animation -> {
+            float fraction = animation.getAnimatedFraction();
+            for (int i = 0; i < mCutoutCount; i++) {
+                mCutouts[i].lerp(mFromCutouts[i], mToCutouts[i], fraction);
+            }
+            mCutoutView.invalidate();
+        });
+        moveAnimator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                super.onAnimationEnd(animation);
+                //Shrink the pulse bounds back to the new target only
+                System.arraycopy(mToBounds, 0, mBounds, 0, 4);
+                layoutCutoutView();
+            }
+        });
+        moveAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
+        moveAnimator.setDuration(MOVE_DURATION);
+    }
+
+    /**
+     * Pulse bounds filled with the scrim minus the cutouts. The way the cutouts are removed depends
+     * on the renderer, see {@link #onAttachedToWindow()}.
+     */
+    private class CutoutView extends View {
+
+        private final Path mPath = new Path();
+
+        private boolean mUseLayer;
+
+        CutoutView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onAttachedToWindow() {
+            super.onAttachedToWindow();
+            //Before P, HWUI rasterizes a path with a hole into a texture every time it changes,
+            //while round rects are tessellated. There the cutouts are punched with DST_OUT inside a
+            //hardware layer the size of this view. From P on, and on software canvases, a single
+            //inverse path of all cutouts is drawn directly, without an offscreen buffer or a xfermode
+            mUseLayer = Build.VERSION.SDK_INT < Build.VERSION_CODES.P && isHardwareAccelerated();
+            setLayerType(mUseLayer ? LAYER_TYPE_HARDWARE : LAYER_TYPE_NONE, null);
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            super.onDraw(canvas);
+            Trace.beginSection("BackgroundOverlayView$CutoutView#onDraw");
+            try {
+                drawCutouts(canvas);
+            } finally {
+                Trace.endSection();
+            }
+        }
+
+        private void drawCutouts(Canvas canvas) {
+            if (mOverlay == null || !mHasCutout) {
+                return;
+            }
+            if (mUseLayer) {
+                canvas.drawRect(0, 0, getWidth(), getHeight(), mPaintBackground);
+            } else {
+                //rewind() resets the fill type to winding, so it is set on every frame
+                mPath.rewind();
+                mPath.setFillType(Path.FillType.INVERSE_WINDING);
+            }
+            for (int i = 0; i < mCutoutCount; i++) {
+                CutoutGeometry cutout = mCutouts[i];
+                float cornerRadius = cutout.getCornerRadius(mPulse);
+                float left = cutout.left - mPulse - mBounds[0];
+                float top = cutout.top - mPulse - mBounds[1];
+                float right = cutout.right + mPulse - mBounds[0];
+                float bottom = cutout.bottom + mPulse - mBounds[1];
+                if (mUseLayer) {
+                    canvas.drawRoundRect(left, top, right, bottom, cornerRadius, cornerRadius, mPaintReference);
+                } else {
+                    mPath.addRoundRect(left, top, right, bottom, cornerRadius, cornerRadius, Path.Direction.CW);
+                }
+            }
+            if (!mUseLayer) {
+                //Everything outside of the cutouts, overlapping cutouts stay clear
+                canvas.drawPath(mPath, mPaintBackground);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+/**
+ * Shape of a cutout without its pulse, a circle is kept as a round rect so both modes can be
+ * interpolated into each other.
+ */
+final class CutoutGeometry {
+
+    float left;
+
+    float top;
+
+    float right;
+
+    float bottom;
+
+    float cornerRadius;
+
+    boolean isCircle;
+
+    void setCircle(int x, int y, int width, int height, float spacing) {
+        float radius = (float) Math.hypot(width, height) / 2 + spacing;
+        float cx = x + (width / 2);
+        float cy = y + (height / 2);
+        left = cx - radius;
+        top = cy - radius;
+        right = cx + radius;
+        bottom = cy + radius;
+        cornerRadius = radius;
+        isCircle = true;
+    }
+
+    void setRectangle(int x, int y, int width, int height, float spacing, float cornerRadius) {
+        left = x - spacing;
+        top = y - spacing;
+        right = x + width + spacing;
+        bottom = y + height + spacing;
+        this.cornerRadius = cornerRadius;
+        isCircle = false;
+    }
+
+    void set(CutoutGeometry other) {
+        left = other.left;
+        top = other.top;
+        right = other.right;
+        bottom = other.bottom;
+        cornerRadius = other.cornerRadius;
+        isCircle = other.isCircle;
+    }
+
+    void lerp(CutoutGeometry from, CutoutGeometry to, float fraction) {
+        left = from.left + (to.left - from.left) * fraction;
+        top = from.top + (to.top - from.top) * fraction;
+        right = from.right + (to.right - from.right) * fraction;
+        bottom = from.bottom + (to.bottom - from.bottom) * fraction;
+        cornerRadius = from.cornerRadius + (to.cornerRadius - from.cornerRadius) * fraction;
+        isCircle = to.isCircle;
+    }
+
+    /**
+     * A circle keeps being a circle while it pulses, a rectangle keeps its corners.
+     */
+    float getCornerRadius(float pulse) {
+        return isCircle ? cornerRadius + pulse : cornerRadius;
+    }
+
+    /**
+     * Pixel bounds covering the cutout at its biggest pulse, one extra pixel per side for the
+     * anti-aliased edge. Written into {@code out} as left, top, right, bottom.
+     */
+    void getPulseBounds(float maxPulse, int[] out) {
+        out[0] = (int) Math.floor(left - maxPulse) - 1;
+        out[1] = (int) Math.floor(top - maxPulse) - 1;
+        out[2] = (int) Math.ceil(right + maxPulse) + 1;
+        out[3] = (int) Math.ceil(bottom + maxPulse) + 1;
+    }
+
+    /**
+     * Grows {@code out}, pulse bounds as written by {@link #getPulseBounds}, to also cover this
+     * cutout.
+     */
+    void unionPulseBounds(float maxPulse, int[] out) {
+        out[0] = Math.min(out[0], (int) Math.floor(left - maxPulse) - 1);
+        out[1] = Math.min(out[1], (int) Math.floor(top - maxPulse) - 1);
+        out[2] = Math.max(out[2], (int) Math.ceil(right + maxPulse) + 1);
+        out[3] = Math.max(out[3], (int) Math.ceil(bottom + maxPulse) + 1);
+    }
+
+    /**
+     * Radius of a circular reveal centered at ({@code cx}, {@code cy}) that covers the whole
+     * area, i.e. the distance to its farthest corner, rounded up to whole pixels.
+     */
+    static float getRevealRadius(float cx, float cy, int width, int height) {
+        float dx = Math.max(cx, width - cx);
+        float dy = Math.max(cy, height - cy);
+        return (float) Math.ceil(Math.hypot(dx, dy));
+    }
+
+    /**
+     * Pulse bounds covering the first {@code count} cutouts.
+     */
+    static void getPulseBounds(CutoutGeometry[] cutouts, int count, float maxPulse, int[] out) {
+        cutouts[0].getPulseBounds(maxPulse, out);
+        for (int i = 1; i < count; i++) {
+            cutouts[i].unionPulseBounds(maxPulse, out);
+        }
+    }
+
+}
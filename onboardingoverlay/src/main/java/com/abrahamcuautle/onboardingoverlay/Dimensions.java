@@ -0,0 +1,98 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+/**
+ * Spacings, radii and the pulse of the overlay in pixels for one density, shared by every
+ * overlay with that density.
+ */
+final class Dimensions {
+
+    private static final int CONTENT_MARGIN_DP = 30;
+
+    private static final int CIRCLE_SPACING_DP = 4;
+
+    private static final int RECT_SPACING_DP = 5;
+
+    private static final int PULSE_DP = 8;
+
+    private static final int RECT_CORNER_RADIUS_DP = 8;
+
+    private static final int DESCRIPTION_MARGIN_TOP_DP = 8;
+
+    private static final int BUTTON_MARGIN_END_DP = 15;
+
+    private static final int BUTTON_PADDING_HORIZONTAL_DP = 8;
+
+    private static final int BUTTON_PADDING_VERTICAL_DP = 4;
+
+    private static final int BUTTON_MIN_WIDTH_DP = 64;
+
+    private static final int BUTTON_MIN_HEIGHT_DP = 48;
+
+    //A process only ever sees a few densities, a lookup scans them without boxing the key
+    private static Dimensions[] sTables = new Dimensions[0];
+
+    final float density;
+
+    final int contentMargin;
+
+    final int circleSpacing;
+
+    final int rectSpacing;
+
+    final int rectCornerRadius;
+
+    final int pulse;
+
+    final int descriptionMarginTop;
+
+    final int buttonMarginEnd;
+
+    final int buttonPaddingHorizontal;
+
+    final int buttonPaddingVertical;
+
+    final int buttonMinWidth;
+
+    final int buttonMinHeight;
+
+    private Dimensions(float density) {
+        this.density = density;
+        this.contentMargin = dp(CONTENT_MARGIN_DP, density);
+        this.circleSpacing = dp(CIRCLE_SPACING_DP, density);
+        this.rectSpacing = dp(RECT_SPACING_DP, density);
+        this.rectCornerRadius = dp(RECT_CORNER_RADIUS_DP, density);
+        this.pulse = dp(PULSE_DP, density);
+        this.descriptionMarginTop = dp(DESCRIPTION_MARGIN_TOP_DP, density);
+        this.buttonMarginEnd = dp(BUTTON_MARGIN_END_DP, density);
+        this.buttonPaddingHorizontal = dp(BUTTON_PADDING_HORIZONTAL_DP, density);
+        this.buttonPaddingVertical = dp(BUTTON_PADDING_VERTICAL_DP, density);
+        this.buttonMinWidth = dp(BUTTON_MIN_WIDTH_DP, density);
+        this.buttonMinHeight = dp(BUTTON_MIN_HEIGHT_DP, density);
+    }
+
+    /**
+     * Only called on the main thread.
+     */
+    static Dimensions get(float density) {
+        Dimensions[] tables = sTables;
+        for (Dimensions table : tables) {
+            if (table.density == density) {
+                return table;
+            }
+        }
+        Dimensions table = new Dimensions(density);
+        Dimensions[] grown = new Dimensions[tables.length + 1];
+        System.arraycopy(tables, 0, grown, 0, tables.length);
+        grown[tables.length] = table;
+        sTables = grown;
+        return table;
+    }
+
+    /**
+     * Rounds to the nearest pixel.
+     */
+    static int dp(int value, float density) {
+        return (int) (value * density + 0.5f);
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.content.Context;
+import android.hardware.display.DisplayManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.util.SparseArray;
+import android.view.Display;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Real size, density and refresh rate of a display, cached per display id. Reading them asks the
+ * display manager for fresh display info, so they are only read again once the display changes
+ * or an overlay sees a configuration change.
+ */
+final class DisplayGeometry {
+
+    private static final SparseArray<DisplayGeometry> sGeometries = new SparseArray<>();
+
+    @Nullable
+    private static DisplayManager.DisplayListener sDisplayListener;
+
+    final int width;
+
+    final int height;
+
+    final float density;
+
+    final float refreshRate;
+
+    private DisplayGeometry(@NonNull DisplayMetrics metrics, float refreshRate) {
+        this.width = metrics.widthPixels;
+        this.height = metrics.heightPixels;
+        this.density = metrics.density;
+        this.refreshRate = refreshRate;
+    }
+
+    @MainThread
+    @NonNull
+    static DisplayGeometry get(@NonNull Context context, @NonNull Display display) {
+        registerDisplayListener(context);
+        int displayId = display.getDisplayId();
+        DisplayGeometry geometry = sGeometries.get(displayId);
+        if (geometry == null) {
+            DisplayMetrics metrics = new DisplayMetrics();
+            display.getRealMetrics(metrics);
+            geometry = new DisplayGeometry(metrics, display.getRefreshRate());
+            sGeometries.put(displayId, geometry);
+        }
+        return geometry;
+    }
+
+    @MainThread
+    static void invalidate(int displayId) {
+        sGeometries.remove(displayId);
+    }
+
+    private static void registerDisplayListener(@NonNull Context context) {
+        if (sDisplayListener != null) {
+            return;
+        }
+        DisplayManager displayManager = (DisplayManager) context.getApplicationContext()
+                .getSystemService(Context.DISPLAY_SERVICE);
+        if (displayManager == null) {
+            return;
+        }
+        sDisplayListener = new DisplayManager.DisplayListener() {
+            @Override
+            public void onDisplayAdded(int displayId) {
+            }
+
+            @Override
+            public void onDisplayRemoved(int displayId) {
+                invalidate(displayId);
+            }
+
+            @Override
+            public void onDisplayChanged(int displayId) {
+                invalidate(displayId);
+            }
+        };
+        displayManager.registerDisplayListener(sDisplayListener, new Handler(Looper.getMainLooper()));
+    }
+
+}
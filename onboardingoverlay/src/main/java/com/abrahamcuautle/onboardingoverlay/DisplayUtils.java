@@ -1,7 +1,6 @@
 package com.abrahamcuautle.onboardingoverlay;
 
 import android.graphics.Point;
-import android.util.DisplayMetrics;
 import android.view.WindowManager;
 
 import androidx.annotation.Nullable;
@@ -16,7 +15,6 @@ public class DisplayUtils {
             return 0;
         }
         Point point = new Point();
-        DisplayMetrics metrics = new DisplayMetrics();
         windowManager.getDefaultDisplay().getRealSize(point);
         return point.x;
     }
@@ -26,7 +24,6 @@ public class DisplayUtils {
             return 0;
         }
         Point point = new Point();
-        DisplayMetrics metrics = new DisplayMetrics();
         windowManager.getDefaultDisplay().getRealSize(point);
         return point.y;
     }
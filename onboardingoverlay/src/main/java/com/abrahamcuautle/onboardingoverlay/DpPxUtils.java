@@ -2,6 +2,11 @@ package com.abrahamcuautle.onboardingoverlay;
 
 import android.content.res.Resources;
 
+/**
+ * @deprecated uses the density of the system resources, which ignores density overrides of the
+ * app. The overlay converts its sizes once per density of its host Context instead.
+ */
+@Deprecated
 public class DpPxUtils {
 
     private DpPxUtils() { }
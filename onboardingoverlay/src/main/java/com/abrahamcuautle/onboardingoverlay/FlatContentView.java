@@ -0,0 +1,421 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.RippleDrawable;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.FontRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+import androidx.core.os.ConfigurationCompat;
+
+/**
+ * Title, description and action button drawn by a single view. Replaces the LinearLayout, the
+ * two TextViews and the MaterialButton of the regular content: texts are drawn from cached
+ * StaticLayouts and the button is hit-tested here. Text size, color, font and all caps are read
+ * from the same overlay styles, the button's paddings, minimum size and ripple color too.
+ */
+class FlatContentView extends View {
+
+    interface OnFontLoadedListener {
+        void onFontLoaded();
+    }
+
+    private static final int[] TEXT_APPEARANCE_ATTRS = {android.R.attr.textAppearance};
+
+    //Sorted by id, as obtainStyledAttributes expects
+    private static final int[] TEXT_ATTRS = {
+            android.R.attr.textSize,
+            android.R.attr.textColor,
+            android.R.attr.textAllCaps,
+            android.R.attr.fontFamily
+    };
+
+    //Sorted by id too
+    private static final int[] BUTTON_ATTRS = {
+            android.R.attr.paddingLeft,
+            android.R.attr.paddingTop,
+            android.R.attr.paddingRight,
+            android.R.attr.paddingBottom,
+            android.R.attr.minWidth,
+            android.R.attr.minHeight,
+            R.attr.rippleColor
+    };
+
+    private final TextPaint mTitlePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+
+    private final TextPaint mDescriptionPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+
+    private final TextPaint mButtonPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+
+    private final boolean mButtonAllCaps;
+
+    private final int mDescriptionMarginTop;
+
+    private final int mButtonMarginEnd;
+
+    private final int mButtonPaddingLeft;
+
+    private final int mButtonPaddingTop;
+
+    private final int mButtonPaddingRight;
+
+    private final int mButtonPaddingBottom;
+
+    private final int mButtonMinWidth;
+
+    private final int mButtonMinHeight;
+
+    @Nullable
+    private final RippleDrawable mButtonBackground;
+
+    private final Rect mButtonBounds = new Rect();
+
+    //Filled in place, getFontMetricsInt() would allocate on every draw
+    private final Paint.FontMetricsInt mButtonFontMetrics = new Paint.FontMetricsInt();
+
+    @Nullable
+    private String mTitle;
+
+    @Nullable
+    private String mDescription;
+
+    @Nullable
+    private String mButtonText;
+
+    //Layouts are only rebuilt when a text or the width changes
+    @Nullable
+    private StaticLayout mTitleLayout;
+
+    @Nullable
+    private StaticLayout mDescriptionLayout;
+
+    private int mLayoutWidth = -1;
+
+    private float mButtonTextWidth;
+
+    @Nullable
+    private OnFontLoadedListener mOnFontLoadedListener;
+
+    FlatContentView(@NonNull StyleCache.ResolvedStyle style, @NonNull Dimensions dimensions) {
+        super(style.themedContext);
+        Context context = style.themedContext;
+        mDescriptionMarginTop = dimensions.descriptionMarginTop;
+        mButtonMarginEnd = dimensions.buttonMarginEnd;
+        readTextStyle(context, style.titleStyle, mTitlePaint);
+        readTextStyle(context, style.descriptionStyle, mDescriptionPaint);
+        mButtonAllCaps = readTextStyle(context, style.buttonStyle, mButtonPaint);
+        applyFont(context, style.titleFont, mTitlePaint);
+        applyFont(context, style.descriptionFont, mDescriptionPaint);
+        applyFont(context, style.buttonFont, mButtonPaint);
+
+        ColorStateList rippleColor;
+        TypedArray a = context.obtainStyledAttributes(null, BUTTON_ATTRS, 0, style.buttonStyle);
+        try {
+            mButtonPaddingLeft = a.getDimensionPixelSize(0, dimensions.buttonPaddingHorizontal);
+            mButtonPaddingTop = a.getDimensionPixelSize(1, dimensions.buttonPaddingVertical);
+            mButtonPaddingRight = a.getDimensionPixelSize(2, dimensions.buttonPaddingHorizontal);
+            mButtonPaddingBottom = a.getDimensionPixelSize(3, dimensions.buttonPaddingVertical);
+            mButtonMinWidth = a.getDimensionPixelSize(4, dimensions.buttonMinWidth);
+            mButtonMinHeight = a.getDimensionPixelSize(5, dimensions.buttonMinHeight);
+            rippleColor = a.getColorStateList(6);
+        } finally {
+            a.recycle();
+        }
+
+        if (rippleColor != null) {
+            mButtonBackground = new RippleDrawable(rippleColor, null, new ColorDrawable(Color.WHITE));
+            mButtonBackground.setCallback(this);
+        } else {
+            mButtonBackground = null;
+        }
+        setFocusable(true);
+    }
+
+    /**
+     * Applies the text appearance of the style first and then the style's own attributes, the
+     * same precedence TextView uses.
+     *
+     * @return whether the text is shown in all caps
+     */
+    private static boolean readTextStyle(@NonNull Context context, @StyleRes int styleRes,
+                                         @NonNull TextPaint paint) {
+        boolean[] allCaps = {false};
+        TypedArray a = context.obtainStyledAttributes(null, TEXT_APPEARANCE_ATTRS, 0, styleRes);
+        int appearance;
+        try {
+            appearance = a.getResourceId(0, 0);
+        } finally {
+            a.recycle();
+        }
+        if (appearance != 0) {
+            applyTextAttrs(context, context.obtainStyledAttributes(appearance, TEXT_ATTRS), paint, allCaps);
+        }
+        applyTextAttrs(context, context.obtainStyledAttributes(null, TEXT_ATTRS, 0, styleRes), paint, allCaps);
+        return allCaps[0];
+    }
+
+    private static void applyTextAttrs(@NonNull Context context, @NonNull TypedArray a,
+                                       @NonNull TextPaint paint, @NonNull boolean[] allCaps) {
+        try {
+            if (a.hasValue(0)) {
+                paint.setTextSize(a.getDimensionPixelSize(0, 0));
+            }
+            if (a.hasValue(1)) {
+                ColorStateList textColor = a.getColorStateList(1);
+                if (textColor != null) {
+                    paint.setColor(textColor.getDefaultColor());
+                }
+            }
+            if (a.hasValue(2)) {
+                allCaps[0] = a.getBoolean(2, false);
+            }
+            if (a.hasValue(3)) {
+                Typeface typeface = readTypeface(context, a, 3);
+                if (typeface != null) {
+                    paint.setTypeface(typeface);
+                }
+            }
+        } finally {
+            a.recycle();
+        }
+    }
+
+    /**
+     * Only family names are created here, font resources are loaded in the background by
+     * {@link FontCache}, see {@link StyleCache}.
+     */
+    @Nullable
+    private static Typeface readTypeface(@NonNull Context context, @NonNull TypedArray a, int index) {
+        if (StyleCache.getFontResource(context, a, index) != 0) {
+            return null;
+        }
+        String family = a.getString(index);
+        return family != null ? Typeface.create(family, Typeface.NORMAL) : null;
+    }
+
+    /**
+     * Sets the font of the style right away if it is loaded, otherwise lays the texts out again
+     * once it is.
+     */
+    private void applyFont(@NonNull Context context, @FontRes int fontRes, @NonNull TextPaint paint) {
+        Typeface typeface = FontCache.get(context, fontRes, loaded -> {
+            paint.setTypeface(loaded);
+            mButtonTextWidth = mButtonText != null ? mButtonPaint.measureText(mButtonText) : 0;
+            mLayoutWidth = -1;
+            requestLayout();
+            invalidate();
+            if (mOnFontLoadedListener != null) {
+                mOnFontLoadedListener.onFontLoaded();
+            }
+        });
+        if (typeface != null) {
+            paint.setTypeface(typeface);
+        }
+    }
+
+    /**
+     * Called when a font of the style is loaded after the view was created, its height may have
+     * changed.
+     */
+    void setOnFontLoadedListener(@Nullable OnFontLoadedListener onFontLoadedListener) {
+        mOnFontLoadedListener = onFontLoadedListener;
+    }
+
+    void bind(@NonNull OnboardingOverlay overlay) {
+        String title = overlay.getTextTitle();
+        String description = overlay.getTextDescription();
+        String buttonText = overlay.getTextButton();
+        if (buttonText != null && mButtonAllCaps) {
+            buttonText = buttonText.toUpperCase(
+                    ConfigurationCompat.getLocales(getResources().getConfiguration()).get(0));
+        }
+        if (TextUtils.equals(title, mTitle)
+                && TextUtils.equals(description, mDescription)
+                && TextUtils.equals(buttonText, mButtonText)) {
+            return;
+        }
+        mTitle = title;
+        mDescription = description;
+        mButtonText = buttonText;
+        mButtonTextWidth = buttonText != null ? mButtonPaint.measureText(buttonText) : 0;
+        mLayoutWidth = -1;
+        setContentDescription(TextUtils.concat(
+                title != null ? title : "", "\n",
+                description != null ? description : "", "\n",
+                buttonText != null ? buttonText : ""));
+        requestLayout();
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int textWidth = Math.max(0, width - getPaddingLeft() - getPaddingRight());
+        if (textWidth != mLayoutWidth) {
+            mTitleLayout = createLayout(mTitle, mTitlePaint, textWidth);
+            mDescriptionLayout = createLayout(mDescription, mDescriptionPaint, textWidth);
+            mLayoutWidth = textWidth;
+        }
+
+        int height = getPaddingTop() + getPaddingBottom();
+        if (mTitleLayout != null) {
+            height += mTitleLayout.getHeight();
+        }
+        if (mDescriptionLayout != null) {
+            height += mDescriptionMarginTop + mDescriptionLayout.getHeight();
+        }
+        height += getButtonHeight();
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Nullable
+    @SuppressWarnings("deprecation")
+    private static StaticLayout createLayout(@Nullable String text, @NonNull TextPaint paint, int width) {
+        if (TextUtils.isEmpty(text) || width == 0) {
+            return null;
+        }
+        //Simple line breaking, the cheapest strategy, instead of TextView's high quality one
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width).build();
+        }
+        return new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true);
+    }
+
+    private int getButtonHeight() {
+        Paint.FontMetricsInt fm = mButtonFontMetrics;
+        mButtonPaint.getFontMetricsInt(fm);
+        return Math.max(mButtonMinHeight,
+                fm.descent - fm.ascent + mButtonPaddingTop + mButtonPaddingBottom);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        int buttonWidth = Math.max(mButtonMinWidth,
+                (int) Math.ceil(mButtonTextWidth) + mButtonPaddingLeft + mButtonPaddingRight);
+        int buttonRight = getWidth() - getPaddingRight() - mButtonMarginEnd;
+        int buttonBottom = getHeight() - getPaddingBottom();
+        mButtonBounds.set(
+                buttonRight - buttonWidth,
+                buttonBottom - getButtonHeight(),
+                buttonRight,
+                buttonBottom);
+        if (mButtonBackground != null) {
+            mButtonBackground.setBounds(mButtonBounds);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        int y = getPaddingTop();
+        if (mTitleLayout != null) {
+            y = drawLayout(canvas, mTitleLayout, y);
+        }
+        if (mDescriptionLayout != null) {
+            drawLayout(canvas, mDescriptionLayout, y + mDescriptionMarginTop);
+        }
+
+        if (mButtonBackground != null) {
+            mButtonBackground.draw(canvas);
+        }
+        if (mButtonText != null) {
+            Paint.FontMetricsInt fm = mButtonFontMetrics;
+            mButtonPaint.getFontMetricsInt(fm);
+            float x = mButtonBounds.left
+                    + (mButtonBounds.width() - mButtonTextWidth) / 2;
+            float baseline = mButtonBounds.top
+                    + (mButtonBounds.height() - (fm.descent - fm.ascent)) / 2f
+                    - fm.ascent;
+            canvas.drawText(mButtonText, x, baseline, mButtonPaint);
+        }
+    }
+
+    private int drawLayout(@NonNull Canvas canvas, @NonNull StaticLayout layout, int y) {
+        int save = canvas.save();
+        canvas.translate(getPaddingLeft(), y);
+        layout.draw(canvas);
+        canvas.restoreToCount(save);
+        return y + layout.getHeight();
+    }
+
+    /**
+     * Only the button is interactive, touches anywhere else are not consumed.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        int x = (int) event.getX();
+        int y = (int) event.getY();
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (!mButtonBounds.contains(x, y)) {
+                    return false;
+                }
+                setButtonHotspot(x, y);
+                setPressed(true);
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (isPressed() && !mButtonBounds.contains(x, y)) {
+                    setPressed(false);
+                } else if (isPressed()) {
+                    setButtonHotspot(x, y);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (isPressed()) {
+                    setPressed(false);
+                    performClick();
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                setPressed(false);
+                return true;
+        }
+        return false;
+    }
+
+    private void setButtonHotspot(float x, float y) {
+        if (mButtonBackground != null) {
+            mButtonBackground.setHotspot(x, y);
+        }
+    }
+
+    @Override
+    protected void drawableStateChanged() {
+        super.drawableStateChanged();
+        if (mButtonBackground != null && mButtonBackground.setState(getDrawableState())) {
+            invalidate();
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mButtonBackground || super.verifyDrawable(who);
+    }
+
+    @Override
+    public void jumpDrawablesToCurrentState() {
+        super.jumpDrawablesToCurrentState();
+        if (mButtonBackground != null) {
+            mButtonBackground.jumpToCurrentState();
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseArray;
+
+import androidx.annotation.FontRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.res.ResourcesCompat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Fonts of the overlay styles, decoded on a background thread the first time a style asks for
+ * them and kept for the whole process. Text is drawn with the default typeface until its font
+ * is loaded.
+ */
+final class FontCache {
+
+    interface Callback {
+        void onFontLoaded(@NonNull Typeface typeface);
+    }
+
+    private static final SparseArray<Typeface> sFonts = new SparseArray<>();
+
+    //Callbacks of the fonts being loaded
+    private static final SparseArray<List<Callback>> sPending = new SparseArray<>();
+
+    private static final SparseArray<Boolean> sFailed = new SparseArray<>();
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    @Nullable
+    private static Executor sExecutor;
+
+    private FontCache() {
+    }
+
+    /**
+     * Starts loading the font if it is not loaded yet.
+     */
+    @MainThread
+    static void preload(@NonNull Context context, @FontRes int fontRes) {
+        get(context, fontRes, null);
+    }
+
+    /**
+     * @param callback called on the main thread once the font is loaded, only if it is not
+     *                 loaded yet
+     * @return the font if it is already loaded
+     */
+    @MainThread
+    @Nullable
+    static Typeface get(@NonNull Context context, @FontRes int fontRes, @Nullable Callback callback) {
+        if (fontRes == 0) {
+            return null;
+        }
+        Typeface typeface = sFonts.get(fontRes);
+        if (typeface != null || sFailed.get(fontRes) != null) {
+            return typeface;
+        }
+
+        List<Callback> callbacks = sPending.get(fontRes);
+        if (callbacks == null) {
+            callbacks = new ArrayList<>(2);
+            sPending.put(fontRes, callbacks);
+            load(context.getApplicationContext(), fontRes);
+        }
+        if (callback != null) {
+            callbacks.add(callback);
+        }
+        return null;
+    }
+
+    /**
+     * @return whether the font was requested and is still being loaded
+     */
+    @MainThread
+    static boolean isLoading(@FontRes int fontRes) {
+        return sPending.get(fontRes) != null;
+    }
+
+    private static void load(@NonNull final Context context, @FontRes final int fontRes) {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "OnboardingOverlay-fonts");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        sExecutor.execute(() -> {
+            Typeface typeface;
+            try {
+                typeface = ResourcesCompat.getFont(context, fontRes);
+            } catch (Resources.NotFoundException e) {
+                typeface = null;
+            }
+            final Typeface loaded = typeface;
+            sMainHandler.post(() -> onLoaded(fontRes, loaded));
+        });
+    }
+
+    private static void onLoaded(@FontRes int fontRes, @Nullable Typeface typeface) {
+        List<Callback> callbacks = sPending.get(fontRes);
+        sPending.remove(fontRes);
+        if (typeface == null) {
+            //Texts keep the default typeface
+            sFailed.put(fontRes, Boolean.TRUE);
+            return;
+        }
+        sFonts.put(fontRes, typeface);
+        if (callbacks != null) {
+            for (int i = 0; i < callbacks.size(); i++) {
+                callbacks.get(i).onFontLoaded(typeface);
+            }
+        }
+    }
+
+}
@@ -1,63 +1,40 @@
 package com.abrahamcuautle.onboardingoverlay;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
 import android.content.Context;
-import android.content.res.ColorStateList;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.PixelFormat;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffXfermode;
-import android.os.Build;
-import android.view.Gravity;
-import android.view.KeyEvent;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.text.TextUtils;
 import android.view.View;
-import android.view.ViewAnimationUtils;
-import android.view.WindowInsets;
-import android.view.WindowManager;
-import android.view.animation.AccelerateDecelerateInterpolator;
-import android.widget.AbsoluteLayout;
-import android.widget.Button;
-import android.widget.FrameLayout;
-import android.widget.LinearLayout;
-import android.widget.TextView;
+import android.view.ViewTreeObserver;
 
 import androidx.annotation.ColorRes;
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.StyleRes;
-import androidx.appcompat.view.ContextThemeWrapper;
 import androidx.core.content.ContextCompat;
 import androidx.core.graphics.ColorUtils;
+import androidx.core.text.PrecomputedTextCompat;
 import androidx.core.view.ViewCompat;
-import androidx.core.view.ViewKt;
-
-import com.google.android.material.button.MaterialButton;
-import com.google.android.material.theme.overlay.MaterialThemeOverlay;
-
-import org.jetbrains.annotations.NotNull;
+import androidx.tracing.Trace;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.ref.WeakReference;
-import java.util.Timer;
-
-import kotlin.Unit;
-import kotlin.jvm.functions.Function1;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 public class OnboardingOverlay {
 
-    private WindowManager mWindowManager;
+    private static final long DEFAULT_ANIMATION_DURATION = 500L;
 
     private int mBackgroundColor;
 
     private final Context mContext;
 
-    private View mOverlayView;
+    private OverlayHost mHost;
 
     private View mReferenceView;
 
@@ -65,6 +42,23 @@ public class OnboardingOverlay {
 
     private int mReferenceViewY;
 
+    private int mReferenceViewWidth;
+
+    private int mReferenceViewHeight;
+
+    //Highlighted together with the reference view, the content is only placed next to that one
+    private final List<Target> mExtraTargets = new ArrayList<>();
+
+    //Reused by every location lookup, tracking reads it on each frame
+    private final int[] mLocation = new int[2];
+
+    private boolean mTrackTarget;
+
+    @Nullable
+    private ViewTreeObserver mTrackedObserver;
+
+    private final ViewTreeObserver.OnPreDrawListener mTrackingListener = this::onTargetPreDraw;
+
     private int mMode;
 
     @StyleRes
@@ -76,10 +70,52 @@ public class OnboardingOverlay {
 
     private String mTextButton;
 
+    private boolean mIsFlatContent;
+
+    private boolean mAttachToDecorView;
+
+    private long mRevealDuration;
+
+    private long mDismissDuration;
+
+    @Nullable
+    private String mShowOnceId;
+
+    //View to show on once the seen ids are loaded
+    @Nullable
+    private View mPendingShowView;
+
+    @Nullable
+    private Future<PrecomputedTextCompat> mPrecomputedTitle;
+
+    @Nullable
+    private Future<PrecomputedTextCompat> mPrecomputedDescription;
+
     private boolean mIsShowing;
 
+    @Nullable
+    private MessageQueue.IdleHandler mPendingPrepare;
+
     private OnDismissListener onDismissListener;
 
+    private OnboardingSequence mSequence;
+
+    @Nullable
+    private OnboardingOverlayManager mManager;
+
+    @Nullable
+    private OnTierChangedListener mOnTierChangedListener;
+
+    @Nullable
+    private OverlayMetrics.OnMetricsListener mOnMetricsListener;
+
+    //Only measured with a listener
+    @Nullable
+    private OverlayMetrics mMetrics;
+
+    @OverlayMetrics.DismissReason
+    private int mDismissReason = OverlayMetrics.DismissReason.PROGRAMMATIC;
+
     @IntDef({Mode.RECTANGLE, Mode.CIRCLE})
     @Retention(RetentionPolicy.SOURCE)
     @interface Mode {
@@ -87,19 +123,73 @@ public class OnboardingOverlay {
         int CIRCLE = 1;
     }
 
+    /**
+     * How much of the overlay is animated, lowered on low RAM devices, with animations turned off
+     * and when frames are dropped while it pulses.
+     */
+    @IntDef({Tier.FULL, Tier.REDUCED, Tier.MINIMAL})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Tier {
+        //Pulse and reveals as configured
+        int FULL = 0;
+        //No pulse, reveals take half of their duration
+        int REDUCED = 1;
+        //No pulse, no reveals and no anti-aliasing of the cutout
+        int MINIMAL = 2;
+    }
+
     interface OnDismissListener {
         void onDismiss();
     }
 
+    public interface OnTierChangedListener {
+        void onTierChanged(@Tier int tier);
+    }
+
     private OnboardingOverlay(Builder builder) {
         this.mContext = builder.context.get();
         this.mBackgroundColor = builder.mBackgroundColor;
         this.mMode = builder.mMode;
-        this.mWindowManager = (WindowManager) mContext.getSystemService(Context.WINDOW_SERVICE);
         this.mStyle = builder.mStyle;
         this.mTextTitle = builder.textTitle;
         this.mTextDescription = builder.textDescription;
         this.mTextButton = builder.textButton;
+        this.mIsFlatContent = builder.isFlatContent;
+        this.mAttachToDecorView = builder.attachToDecorView;
+        this.mTrackTarget = builder.trackTarget;
+        this.mShowOnceId = builder.showOnceId;
+        this.mRevealDuration = builder.revealDuration;
+        this.mDismissDuration = builder.dismissDuration;
+        this.mOnTierChangedListener = builder.onTierChangedListener;
+        this.mOnMetricsListener = builder.onMetricsListener;
+        if (mOnMetricsListener != null) {
+            mMetrics = new OverlayMetrics();
+        }
+        if (builder.precomputeExecutor != null && mContext != null) {
+            precomputeTexts(builder.precomputeExecutor);
+        }
+    }
+
+    /**
+     * Starts laying out the title and description on the executor with the same paint and line
+     * breaking params the content TextViews are going to use, taken from the style the host of
+     * the Activity has cached. Texts start once the fonts of their styles are loaded.
+     */
+    private void precomputeTexts(@NonNull final Executor executor) {
+        OverlayHost host = OverlayHost.obtain(mContext);
+        if (host == null) {
+            //Without an Activity there is no host, texts are laid out when shown
+            return;
+        }
+        StyleCache.ResolvedStyle style = host.getStyle(mStyle);
+        if (!TextUtils.isEmpty(mTextTitle)) {
+            style.titleParams.get(params -> mPrecomputedTitle =
+                    PrecomputedTextCompat.getTextFuture(mTextTitle, params, executor));
+        }
+        if (!TextUtils.isEmpty(mTextDescription)) {
+            style.descriptionParams.get(params -> mPrecomputedDescription =
+                    PrecomputedTextCompat.getTextFuture(mTextDescription, params, executor));
+        }
     }
 
     public void show(@NonNull View view) {
@@ -111,45 +201,237 @@ public class OnboardingOverlay {
             throw new  IllegalStateException("View's width and height must be greater than 0");
         }
 
-        this.mReferenceView = view;
-        computeXAndYReferenceView();
+        //Steps of a sequence are always shown
+        if (mShowOnceId != null && mSequence == null && !mIsShowing) {
+            SeenRegistry registry = SeenRegistry.get(mContext);
+            if (!registry.isLoaded()) {
+                if (mPendingShowView == null) {
+                    registry.runWhenLoaded(this::showPending);
+                }
+                mPendingShowView = view;
+                return;
+            }
+            if (registry.isSeen(mShowOnceId)) {
+                onSkipped();
+                return;
+            }
+            registry.markSeen(mShowOnceId);
+        }
 
-        WindowManager.LayoutParams lp = new WindowManager.LayoutParams(
-                WindowManager.LayoutParams.MATCH_PARENT,
-                WindowManager.LayoutParams.MATCH_PARENT,
-                WindowManager.LayoutParams.TYPE_APPLICATION_PANEL,
-                WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN |
-                        WindowManager.LayoutParams.FLAG_LAYOUT_INSET_DECOR,
-                PixelFormat.TRANSLUCENT);
+        Trace.beginSection("OnboardingOverlay#show");
+        try {
+            if (mMetrics != null && !mIsShowing) {
+                mMetrics.onShowRequested(System.nanoTime());
+            }
+            mDismissReason = OverlayMetrics.DismissReason.PROGRAMMATIC;
+            cancelPendingPrepare();
+            stopTracking();
+            this.mReferenceView = view;
+            updateReferenceViewGeometry();
+            updateExtraTargetsGeometry();
+
+            //One host per Activity, its window and views are reused between overlays
+            mHost = OverlayHost.obtain(mContext, view);
+            mIsShowing = true;
+            //Tracking starts first, showing may already replace this overlay with another one
+            if (mTrackTarget) {
+                mTrackedObserver = view.getViewTreeObserver();
+                mTrackedObserver.addOnPreDrawListener(mTrackingListener);
+            }
+            mHost.show(this);
+        } finally {
+            Trace.endSection();
+        }
+    }
 
-        mOverlayView = new OverLayView(mContext);
+    /**
+     * Builds and measures the content of this overlay once the main thread is idle, so a later
+     * {@link #show(View)} with the same view only has to place it and add the window.
+     */
+    public void prepare(@NonNull final View view) {
+        cancelPendingPrepare();
+        mPendingPrepare = () -> {
+            mPendingPrepare = null;
+            if (mIsShowing || mContext == null) {
+                return false;
+            }
+            //The host is found through the view's root, which is only the Activity's once attached
+            if (ViewCompat.isAttachedToWindow(view)) {
+                OverlayHost.obtain(mContext, view).prepare(this);
+            } else {
+                view.addOnAttachStateChangeListener(new View.OnAttachStateChangeListener() {
+                    @Override
+                    public void onViewAttachedToWindow(View v) {
+                        v.removeOnAttachStateChangeListener(this);
+                        prepare(v);
+                    }
 
-        if (mWindowManager != null) {
-            mIsShowing = true;
-            mWindowManager.addView(mOverlayView, lp);
+                    @Override
+                    public void onViewDetachedFromWindow(View v) {
+                    }
+                });
+            }
+            return false;
+        };
+        Looper.myQueue().addIdleHandler(mPendingPrepare);
+    }
+
+    private void showPending() {
+        View view = mPendingShowView;
+        if (view == null) {
+            //Dismissed meanwhile
+            return;
+        }
+        mPendingShowView = null;
+        if (ViewCompat.isAttachedToWindow(view) && view.getWidth() > 0 && view.getHeight() > 0) {
+            show(view);
+        } else {
+            onSkipped();
+        }
+    }
+
+    private void cancelPendingPrepare() {
+        if (mPendingPrepare != null) {
+            Looper.myQueue().removeIdleHandler(mPendingPrepare);
+            mPendingPrepare = null;
+        }
+    }
+
+    /**
+     * @return whether the reference view moved or was resized since the last call
+     */
+    private boolean updateReferenceViewGeometry() {
+        mReferenceView.getLocationInWindow(mLocation);
+        int width = mReferenceView.getWidth();
+        int height = mReferenceView.getHeight();
+        if (mLocation[0] == mReferenceViewX
+                && mLocation[1] == mReferenceViewY
+                && width == mReferenceViewWidth
+                && height == mReferenceViewHeight) {
+            return false;
+        }
+        mReferenceViewX = mLocation[0];
+        mReferenceViewY = mLocation[1];
+        mReferenceViewWidth = width;
+        mReferenceViewHeight = height;
+        return true;
+    }
+
+    /**
+     * @return whether any of the extra targets moved or was resized since the last call
+     */
+    private boolean updateExtraTargetsGeometry() {
+        boolean changed = false;
+        for (int i = 0, size = mExtraTargets.size(); i < size; i++) {
+            changed |= mExtraTargets.get(i).update(mLocation);
+        }
+        return changed;
+    }
+
+    /**
+     * Reads the position of every target again, a configuration change may have moved them.
+     */
+    void updateTargetsGeometry() {
+        if (mReferenceView != null) {
+            updateReferenceViewGeometry();
+            updateExtraTargetsGeometry();
+        }
+    }
+
+    /**
+     * Runs before every frame of the reference view's window, scrolls and layout changes
+     * included. It only compares a few ints unless the target actually moved.
+     */
+    private boolean onTargetPreDraw() {
+        if (mIsShowing && mReferenceView != null
+                && (updateReferenceViewGeometry() | updateExtraTargetsGeometry())) {
+            mHost.onTargetMoved(this);
+        }
+        return true;
+    }
+
+    private void stopTracking() {
+        if (mTrackedObserver == null) {
+            return;
         }
+        //An observer that died was merged into the one of the window the view attached to
+        ViewTreeObserver observer = mTrackedObserver.isAlive()
+                ? mTrackedObserver
+                : mReferenceView.getViewTreeObserver();
+        observer.removeOnPreDrawListener(mTrackingListener);
+        mTrackedObserver = null;
     }
 
-    private void computeXAndYReferenceView() {
-        int[] location = new int[2];
-        mReferenceView.getLocationInWindow(location);
-        mReferenceViewX = location[0];
-        mReferenceViewY = location[1];
+    /**
+     * Highlights another view together with the one the overlay is shown on, with its own mode.
+     * The content is still placed next to the view passed to {@link #show(View)}.
+     */
+    public OnboardingOverlay addTarget(@NonNull View view, @Mode int mode) {
+        mExtraTargets.add(new Target(view, mode));
+        return this;
     }
 
     public void dismiss() {
-        if (mWindowManager != null
-                && mOverlayView != null
-                && mOverlayView.isAttachedToWindow()) {
-            mIsShowing = false;
-            mWindowManager.removeView(mOverlayView);
-            if (onDismissListener != null){
-                onDismissListener.onDismiss();
-            }
+        if (mPendingShowView != null) {
+            //Never shown, a manager still has to move on to its next overlay
+            mPendingShowView = null;
+            onSkipped();
+        }
+        if (mHost != null && mHost.isShowing(this)) {
+            mHost.release(this);
+        }
+    }
+
+    void onDismissed() {
+        if (mIsShowing && mMetrics != null) {
+            mMetrics.onDismissed(System.nanoTime(), mDismissReason);
+            mOnMetricsListener.onMetrics(mMetrics);
+        }
+        mIsShowing = false;
+        stopTracking();
+        if (onDismissListener != null){
+            onDismissListener.onDismiss();
+        }
+        if (mSequence != null) {
+            mSequence.onStepDismissed(this);
+        }
+        if (mManager != null) {
+            mManager.onOverlayDismissed(this);
         }
     }
 
-    private boolean isShowing() {
+    /**
+     * Called instead of showing an overlay that was already seen, so a manager moves on to the
+     * next one.
+     */
+    private void onSkipped() {
+        if (mManager != null) {
+            mManager.onOverlayDismissed(this);
+        }
+    }
+
+    /**
+     * Called when the overlay is shown and whenever the tier drops while it is showing.
+     */
+    void onTierChanged(@Tier int tier) {
+        if (mOnTierChangedListener != null) {
+            mOnTierChangedListener.onTierChanged(tier);
+        }
+    }
+
+    /**
+     * Set when the user closes the overlay, anything else is a programmatic dismissal.
+     */
+    void setDismissReason(@OverlayMetrics.DismissReason int dismissReason) {
+        this.mDismissReason = dismissReason;
+    }
+
+    @Nullable
+    OverlayMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    boolean isShowing() {
         return mIsShowing;
     }
 
@@ -157,6 +439,154 @@ public class OnboardingOverlay {
         this.onDismissListener = onDismissListener;
     }
 
+    void setTrackTarget(boolean trackTarget) {
+        this.mTrackTarget = trackTarget;
+    }
+
+    void setSequence(OnboardingSequence sequence) {
+        this.mSequence = sequence;
+    }
+
+    void setManager(@Nullable OnboardingOverlayManager manager) {
+        this.mManager = manager;
+    }
+
+    OnboardingSequence getSequence() {
+        return mSequence;
+    }
+
+    OverlayHost getHost() {
+        return mHost;
+    }
+
+    int getBackgroundColor() {
+        return mBackgroundColor;
+    }
+
+    @Mode
+    int getMode() {
+        return mMode;
+    }
+
+    @StyleRes
+    int getStyle() {
+        return mStyle;
+    }
+
+    boolean isFlatContent() {
+        return mIsFlatContent;
+    }
+
+    boolean shouldAttachToDecorView() {
+        return mAttachToDecorView;
+    }
+
+    long getRevealDuration() {
+        return mRevealDuration;
+    }
+
+    long getDismissDuration() {
+        return mDismissDuration;
+    }
+
+    String getTextTitle() {
+        return mTextTitle;
+    }
+
+    String getTextDescription() {
+        return mTextDescription;
+    }
+
+    @Nullable
+    Future<PrecomputedTextCompat> getPrecomputedTitle() {
+        return mPrecomputedTitle;
+    }
+
+    @Nullable
+    Future<PrecomputedTextCompat> getPrecomputedDescription() {
+        return mPrecomputedDescription;
+    }
+
+    String getTextButton() {
+        return mTextButton;
+    }
+
+    View getReferenceView() {
+        return mReferenceView;
+    }
+
+    int getReferenceViewX() {
+        return mReferenceViewX;
+    }
+
+    int getReferenceViewY() {
+        return mReferenceViewY;
+    }
+
+    /**
+     * Targets are the reference view, at index 0, followed by the extra targets.
+     */
+    int getTargetCount() {
+        return 1 + mExtraTargets.size();
+    }
+
+    View getTargetView(int index) {
+        return index == 0 ? mReferenceView : mExtraTargets.get(index - 1).view;
+    }
+
+    @Mode
+    int getTargetMode(int index) {
+        return index == 0 ? mMode : mExtraTargets.get(index - 1).mode;
+    }
+
+    int getTargetX(int index) {
+        return index == 0 ? mReferenceViewX : mExtraTargets.get(index - 1).x;
+    }
+
+    int getTargetY(int index) {
+        return index == 0 ? mReferenceViewY : mExtraTargets.get(index - 1).y;
+    }
+
+    private static final class Target {
+
+        final View view;
+
+        @Mode
+        final int mode;
+
+        int x;
+
+        int y;
+
+        int width;
+
+        int height;
+
+        Target(View view, @Mode int mode) {
+            this.view = view;
+            this.mode = mode;
+        }
+
+        /**
+         * @return whether the view moved or was resized since the last call
+         */
+        boolean update(int[] location) {
+            view.getLocationInWindow(location);
+            if (location[0] == x
+                    && location[1] == y
+                    && view.getWidth() == width
+                    && view.getHeight() == height) {
+                return false;
+            }
+            x = location[0];
+            y = location[1];
+            width = view.getWidth();
+            height = view.getHeight();
+            return true;
+        }
+
+    }
+
     public static class Builder {
 
         private WeakReference<Context> context;
@@ -175,6 +605,24 @@ public class OnboardingOverlay {
 
         private String textButton;
 
+        private boolean isFlatContent;
+
+        private boolean attachToDecorView;
+
+        private boolean trackTarget;
+
+        private Executor precomputeExecutor;
+
+        private String showOnceId;
+
+        private long revealDuration = DEFAULT_ANIMATION_DURATION;
+
+        private long dismissDuration = DEFAULT_ANIMATION_DURATION;
+
+        private OnTierChangedListener onTierChangedListener;
+
+        private OverlayMetrics.OnMetricsListener onMetricsListener;
+
         public Builder(@NonNull Context context) {
             this(context, 0);
         }
@@ -219,445 +667,106 @@ public class OnboardingOverlay {
             return this;
         }
 
-        public OnboardingOverlay build()  {
-            return new OnboardingOverlay(this);
-        }
-
-    }
-
-    private class OverLayView extends FrameLayout {
-
-        public OverLayView(@NonNull Context context) {
-            super(context);
-            addView(new BackgroundOverlayView(context));
-            LinearLayout ll = createContainer();
-            //ll.setBackgroundColor(Color.BLUE);
-            generateLayoutParams(ll);
-            addView(ll);
-        }
-
-        private void generateLayoutParams(LinearLayout ll){
-            if(mReferenceView != null && !ViewCompat.isAttachedToWindow(mReferenceView)) {
-                return ;
-            }
-
-            int leftMargin = (int) DpPxUtils.pxToDp(30);
-            int rightMargin = (int) DpPxUtils.pxToDp(30);
-
-            int widthScreen = DisplayUtils.getWidthScreen(mWindowManager);
-            int heightScreen = DisplayUtils.getHeightScreen(mWindowManager);
-
-            int widthContent =  Math.min(widthScreen, heightScreen) - leftMargin - rightMargin;
-
-            LayoutParams lp = new LayoutParams(widthContent, LayoutParams.WRAP_CONTENT);
-            ll.setLayoutParams(lp);
-
-            int widthSpec = MeasureSpec.makeMeasureSpec(widthContent, MeasureSpec.EXACTLY);
-            int heightSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
-            measureChild(ll, widthSpec, heightSpec);
-
-            //Space Available acordding to mReferenceView position
-            int leftSpaceAvailable = mReferenceViewX;
-            int topSpaceAvailable = mReferenceViewY;
-            int rightSpaceAvailable = widthScreen - (mReferenceViewX + mReferenceView.getWidth());
-            int bottomSpaceAvailable = heightScreen - (mReferenceViewY + mReferenceView.getHeight());
-
-            int maxXAxis = Math.max(topSpaceAvailable, bottomSpaceAvailable);
-            int maxYAxis = Math.max(rightSpaceAvailable, leftSpaceAvailable);
-            int maxSpace = Math.max(maxXAxis, maxYAxis);
-
-            if (maxSpace == topSpaceAvailable) {
-                //More space available on top of mReferenceView
-                lp.gravity = Gravity.BOTTOM;
-                lp.bottomMargin = getBottomMargin();
-
-                lp.leftMargin = leftMargin;
-                lp.rightMargin = rightMargin;
-            } else if (maxSpace == bottomSpaceAvailable) {
-                //More space available on bottom of mReferenceView
-                lp.gravity = Gravity.TOP;
-                lp.topMargin = getTopMargin();
-
-                lp.leftMargin = leftMargin;
-                lp.rightMargin = rightMargin;
-            } else if (maxSpace == leftSpaceAvailable) {
-                lp.rightMargin = getRightMargin();
-                lp.width = adjustWidthAccordingToLeftSpaceAvailable(leftSpaceAvailable, widthContent);
-
-                if (topSpaceAvailable > bottomSpaceAvailable) {
-                    lp.gravity = Gravity.END | Gravity.BOTTOM;
-                    lp.bottomMargin = heightScreen
-                            - mReferenceViewY
-                            - mReferenceView.getHeight()
-                            - getMissingBottomMargin(topSpaceAvailable, ll);
-
-                } else {
-                    lp.gravity = Gravity.END | Gravity.TOP;
-                    lp.topMargin = mReferenceViewY
-                            + mReferenceView.getHeight()
-                            + getMissingTopMargin(bottomSpaceAvailable, ll);
-                }
-
-            } else {
-                lp.leftMargin = getLeftMargin();
-                lp.width = adjustWidthAccordingToRightSpaceAvailable(rightSpaceAvailable, widthContent);
-
-                if (topSpaceAvailable > bottomSpaceAvailable) {
-                    lp.gravity = Gravity.START | Gravity.BOTTOM;
-                    lp.bottomMargin = heightScreen
-                            - mReferenceViewY
-                            - mReferenceView.getHeight()
-                            - getMissingBottomMargin(topSpaceAvailable, ll);
-                } else {
-                    lp.gravity = Gravity.START | Gravity.TOP;
-                    lp.topMargin = mReferenceViewY
-                            + mReferenceView.getHeight()
-                            + getMissingTopMargin(bottomSpaceAvailable, ll);
-                }
-            }
-
-            ll.requestLayout();
-
-        }
-
-        private int adjustWidthAccordingToLeftSpaceAvailable(int leftSpaceAvailable, int widthContent) {
-            return leftSpaceAvailable > widthContent
-                    ? widthContent
-                    : leftSpaceAvailable - (int) DpPxUtils.pxToDp(30); //15dp for rightMargin & 15dp for leftMargin
-        }
-
-        private int adjustWidthAccordingToRightSpaceAvailable(int rightSpaceAvailable, int widthContent) {
-            return rightSpaceAvailable > widthContent
-                    ? widthContent
-                    : rightSpaceAvailable - (int) DpPxUtils.pxToDp(30); //15dp for rightMargin & 15dp for leftMargin
-        }
-
-        private int getMissingTopMargin(int bottomSpaceAvailable, @NotNull LinearLayout content) {
-            return bottomSpaceAvailable > content.getMeasuredHeight()
-                    ? 0
-                    : bottomSpaceAvailable - content.getMeasuredHeight();
-        }
-
-        private int getMissingBottomMargin(int topSpaceAvailable, @NotNull LinearLayout content) {
-            return topSpaceAvailable > content.getMeasuredHeight()
-                    ? 0
-                    : topSpaceAvailable - content.getMeasuredHeight();
+        /**
+         * Draws the title, description and button with a single view instead of a layout with
+         * a view per element. Styles are still honored, but the button has no focus or hover
+         * states of its own and texts use simple line breaking.
+         */
+        public Builder setFlatContent(boolean isFlatContent) {
+            this.isFlatContent = isFlatContent;
+            return this;
         }
 
-        private int getRightMargin() {
-            int rightMargin = 0;
-            int widthScreen = DisplayUtils.getWidthScreen(mWindowManager);
-            switch (mMode) {
-                case Mode.CIRCLE:
-                    double mRadius = Math.hypot(mReferenceView.getWidth(), mReferenceView.getHeight()) / 2;
-                    rightMargin = widthScreen
-                            - mReferenceViewX - mReferenceView.getWidth() / 2
-                            + (int) mRadius
-                            + (int) DpPxUtils.pxToDp(4) //extra spacing
-                            + (int) DpPxUtils.pxToDp(8); //end radius for animation;
-                    break;
-                case Mode.RECTANGLE:
-                    rightMargin = widthScreen
-                            - mReferenceViewX
-                            + (int) DpPxUtils.pxToDp(5) //extra spacing
-                            + (int) DpPxUtils.pxToDp(8); //end radius for animation;
-                    break;
-            }
-            return rightMargin;
-        }
-
-        private int getLeftMargin() {
-            int leftMargin = 0;
-            switch (mMode) {
-                case Mode.CIRCLE:
-                    double mRadius = Math.hypot(mReferenceView.getWidth(), mReferenceView.getHeight()) / 2;
-                    leftMargin = mReferenceViewX
-                            + mReferenceView.getWidth() / 2
-                            + (int) mRadius
-                            + (int) DpPxUtils.pxToDp(4)
-                            + (int) DpPxUtils.pxToDp(8);
-                    break;
-                case Mode.RECTANGLE:
-                    leftMargin = mReferenceViewX
-                            + mReferenceView.getWidth()
-                            + (int) DpPxUtils.pxToDp(5) //extra spacing
-                            + (int) DpPxUtils.pxToDp(8); //end radius for animation;
-                    break;
-            }
-            return leftMargin;
-        }
-
-        private int getBottomMargin() {
-            int bottomMargin = 0;
-            int heightScreen = DisplayUtils.getHeightScreen(mWindowManager);
-            switch (mMode) {
-                case Mode.CIRCLE:
-                    double mRadius = Math.hypot(mReferenceView.getWidth(), mReferenceView.getHeight()) / 2;
-                    bottomMargin = heightScreen
-                            - mReferenceViewY - mReferenceView.getHeight() / 2
-                            + (int) mRadius
-                            + (int) DpPxUtils.pxToDp(4)
-                            + (int) DpPxUtils.pxToDp(8);
-                    break;
-                case Mode.RECTANGLE:
-                    bottomMargin = heightScreen
-                            - mReferenceViewY
-                            + (int) DpPxUtils.pxToDp(5) //extra spacing
-                            + (int) DpPxUtils.pxToDp(8); //end radius for animation;;
-                    break;
-            }
-            return bottomMargin;
-        }
-
-        private int getTopMargin() {
-            int topMargin = 0;
-            switch (mMode){
-                case Mode.CIRCLE:
-                    double mRadius = Math.hypot(mReferenceView.getWidth(), mReferenceView.getHeight()) / 2;
-                    topMargin = mReferenceViewY
-                            + (mReferenceView.getHeight() / 2)
-                            + (int) Math.round(mRadius)
-                            + (int) DpPxUtils.pxToDp(4) //extra space
-                            + (int) DpPxUtils.pxToDp(8); //end radius for animation
-                    break;
-                case Mode.RECTANGLE:
-                    topMargin = mReferenceViewY
-                            + mReferenceView.getHeight()
-                            + (int) DpPxUtils.pxToDp(5) //extra spacing
-                            + (int) DpPxUtils.pxToDp(8); //end radius for animation
-                    break;
-            }
-            return topMargin;
+        /**
+         * Adds the overlay to the Activity's decor view instead of a window of its own, so it is
+         * rendered within the Activity's surface and no extra layer has to be composed.
+         */
+        public Builder setAttachToDecorView(boolean attachToDecorView) {
+            this.attachToDecorView = attachToDecorView;
+            return this;
         }
 
-        @Override
-        protected void onAttachedToWindow() {
-            super.onAttachedToWindow();
-            startOpenCircleReveal();
+        /**
+         * Keeps the cutout and the content on the view while it scrolls, animates or is moved by
+         * a layout change, such as the keyboard showing up.
+         */
+        public Builder setTrackTarget(boolean trackTarget) {
+            this.trackTarget = trackTarget;
+            return this;
         }
 
-        private void startOpenCircleReveal() {
-            if(mReferenceView != null && ViewCompat.isAttachedToWindow(mReferenceView)){
-
-                int heightScreen = DisplayUtils.getHeightScreen(mWindowManager);
-                int widthScreen = DisplayUtils.getWidthScreen(mWindowManager);
-                int endRadius = Math.max(heightScreen, widthScreen);
-
-                float cx = (float) (mReferenceViewX +  (mReferenceView.getWidth() / 2));
-                float cy = (float) (mReferenceViewY + (mReferenceView.getHeight() / 2));
-
-                Animator animator = ViewAnimationUtils.createCircularReveal(mOverlayView, (int) cx, (int) cy, 0, endRadius);
-                animator.setInterpolator(new AccelerateDecelerateInterpolator());
-                animator.setDuration(500L);
-                animator.start();
-            }
+        /**
+         * Lays out the title and description on the given executor as soon as the overlay is
+         * built, so showing it only has to measure text that is already laid out. Text that is
+         * not ready yet when the overlay is shown is laid out on the main thread as usual.
+         */
+        public Builder setPrecomputeExecutor(@Nullable Executor executor) {
+            this.precomputeExecutor = executor;
+            return this;
         }
 
-        private void startCloseCircleReveal() {
-            if(mReferenceView != null && ViewCompat.isAttachedToWindow(mReferenceView)){
-
-                int heightScreen = DisplayUtils.getHeightScreen(mWindowManager);
-                int widthScreen = DisplayUtils.getWidthScreen(mWindowManager);
-                int startRadius = Math.max(heightScreen, widthScreen);
-
-                float cx = (float) (mReferenceViewX +  (mReferenceView.getWidth() / 2));
-                float cy = (float) (mReferenceViewY + (mReferenceView.getHeight() / 2));
-
-                Animator animator = ViewAnimationUtils.createCircularReveal(mOverlayView, (int) cx, (int) cy, startRadius, 0);
-                animator.addListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        super.onAnimationEnd(animation);
-                        setVisibility(GONE);
-                        dismiss();
-                    }
-                });
-                animator.setInterpolator(new AccelerateDecelerateInterpolator());
-                animator.setDuration(500L);
-                animator.start();
+        /**
+         * Shows the overlay only the first time {@link OnboardingOverlay#show(View)} is called
+         * for the given id, also across app restarts. Later calls do nothing. See
+         * {@link SeenRegistry} to let it show again.
+         */
+        public Builder showOnce(@Nullable String id) {
+            this.showOnceId = id;
+            Context context = this.context.get();
+            if (id != null && context != null) {
+                //Starts loading the seen ids, so they are usually in memory by the time it is shown
+                SeenRegistry.get(context);
             }
+            return this;
         }
 
-        private LinearLayout createContainer() {
-            LinearLayout container = new LinearLayout(mContext);
-            container.setOrientation(LinearLayout.VERTICAL);
-
-            //Add Title TextView
-            LinearLayout.LayoutParams lptvt = new LinearLayout.LayoutParams(
-                    LinearLayout.LayoutParams.MATCH_PARENT,
-                    LinearLayout.LayoutParams.WRAP_CONTENT);
-            container.addView(createTitleTextView(), lptvt);
-
-            //Add Description TextView
-            LinearLayout.LayoutParams lptvd = new LinearLayout.LayoutParams(
-                    LinearLayout.LayoutParams.MATCH_PARENT,
-                    LinearLayout.LayoutParams.WRAP_CONTENT);
-            lptvd.topMargin = (int) DpPxUtils.pxToDp(8);
-            container.addView(createDescriptionTextView(), lptvd);
-
-            //Add button
-            LinearLayout.LayoutParams lpbtn = new LinearLayout.LayoutParams(
-                    LinearLayout.LayoutParams.WRAP_CONTENT,
-                    LinearLayout.LayoutParams.WRAP_CONTENT);
-            lpbtn.rightMargin = (int) DpPxUtils.pxToDp(15);
-            lpbtn.gravity = Gravity.END;
-            container.addView(createButton(), lpbtn);
-
-            return container;
-        }
-
-        @NotNull
-        private TextView createTitleTextView() {
-            TextView titleTextView = new TextView(resolveTheme(), null, R.attr.onboardingTitleStyle);
-            titleTextView.setText(mTextTitle);
-            return titleTextView;
-        }
-
-        @NotNull
-        private TextView createDescriptionTextView() {
-            TextView descriptionTextView = new TextView(resolveTheme(),null, R.attr.onboardingDescriptionStyle);
-            descriptionTextView.setText(mTextDescription);
-            return descriptionTextView;
-        }
-
-        @NotNull
-        private MaterialButton createButton() {
-            MaterialButton button = new MaterialButton(resolveTheme(), null, R.attr.onboardingButtonStyle);
-            button.setText(mTextButton);
-            button.setOnClickListener(v -> startCloseCircleReveal());
-            return button;
+        /**
+         * @param millis duration of the circular reveal that shows the overlay, 0 shows it
+         *               right away
+         */
+        public Builder setRevealDuration(long millis) {
+            this.revealDuration = millis;
+            return this;
         }
 
-        @NotNull
-        private Context resolveTheme(){
-            return mStyle == 0
-                    ? new ContextThemeWrapper(getContext(), R.style.OnboardingOverlayStyle)
-                    : new ContextThemeWrapper(getContext(), mStyle);
+        /**
+         * @param millis duration of the circular reveal that hides the overlay, 0 hides it
+         *               right away
+         */
+        public Builder setDismissDuration(long millis) {
+            this.dismissDuration = millis;
+            return this;
         }
 
-        @Override
-        public boolean dispatchKeyEvent(KeyEvent event) {
-            if (event.getKeyCode() == KeyEvent.KEYCODE_BACK) {
-                if (getKeyDispatcherState() == null) {
-                    return super.dispatchKeyEvent(event);
-                }
-
-                if (event.getAction() == KeyEvent.ACTION_DOWN && event.getRepeatCount() == 0) {
-                    final KeyEvent.DispatcherState state = getKeyDispatcherState();
-                    if (state != null) {
-                        state.startTracking(event, this);
-                    }
-                    return true;
-                } else if (event.getAction() == KeyEvent.ACTION_UP) {
-                    final KeyEvent.DispatcherState state = getKeyDispatcherState();
-                    if (state != null && state.isTracking(event) && !event.isCanceled()) {
-                        startCloseCircleReveal();
-                        return true;
-                    }
-                }
-                return super.dispatchKeyEvent(event);
-            } else {
-                return super.dispatchKeyEvent(event);
-            }
+        /**
+         * Gets the {@link Tier} the overlay is shown with, and the lower one it drops to if the
+         * device cannot keep up while it is showing.
+         */
+        public Builder setOnTierChangedListener(@Nullable OnTierChangedListener listener) {
+            this.onTierChangedListener = listener;
+            return this;
         }
 
-    }
-
-    private class BackgroundOverlayView extends View {
-
-        private final Paint mPaintReference = new Paint(Paint.ANTI_ALIAS_FLAG);
-
-        private final Paint mPaintBackground = new Paint(Paint.ANTI_ALIAS_FLAG);
-
-        private float mRadius;
-
-        private float cx;
-
-        private float cy;
-
-        private float mRectSide;
-
-        private final float mRectSpacing = DpPxUtils.pxToDp(5);
-
-        private final float mCornerRadius = DpPxUtils.pxToDp(8);
-
-        private ValueAnimator valueAnimator;
-
-        public BackgroundOverlayView(Context context) {
-            super(context);
-
-            mPaintReference.setColor(Color.RED);
-            mPaintReference.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_OUT));
-
-            mPaintBackground.setColor(mBackgroundColor);
-
-            switch (mMode) {
-                case Mode.CIRCLE:
-                    if(mReferenceView != null && ViewCompat.isAttachedToWindow(mReferenceView)){
-                        mRadius = (float)  Math.hypot(mReferenceView.getWidth(), mReferenceView.getHeight()) / 2;
-                        mRadius += DpPxUtils.pxToDp(4); //Add Extra Spacing
-
-                        cx = (float) (mReferenceViewX +  (mReferenceView.getWidth() / 2));
-                        cy = (float) (mReferenceViewY + (mReferenceView.getHeight() / 2));
-                    }
-                    setUpCircleAnimator();
-                    break;
-                case Mode.RECTANGLE:
-                    setUpRoundRectAnimator();
-                    break;
-            }
-
+        /**
+         * Gets the {@link OverlayMetrics} of the overlay every time it is dismissed.
+         */
+        public Builder setOnMetricsListener(@Nullable OverlayMetrics.OnMetricsListener listener) {
+            this.onMetricsListener = listener;
+            return this;
         }
 
-        @Override
-        protected void onDraw(Canvas canvas) {
-            super.onDraw(canvas);
-            if (valueAnimator != null && !valueAnimator.isRunning()) {
-                valueAnimator.start();
-            }
-            canvas.drawRect(0, 0, getWidth(), getHeight(), mPaintBackground);
-            switch (mMode) {
-                case Mode.CIRCLE:
-                    canvas.drawCircle(cx, cy, mRadius, mPaintReference);
-                    break;
-                case Mode.RECTANGLE:
-                    if(mReferenceView != null && ViewCompat.isAttachedToWindow(mReferenceView)){
-                        canvas.drawRoundRect(
-                               mReferenceViewX - mRectSpacing - mRectSide,
-                               mReferenceViewY - mRectSpacing - mRectSide,
-                               mReferenceViewX + mReferenceView.getWidth() + mRectSpacing + mRectSide,
-                                mReferenceViewY + mReferenceView.getHeight() + mRectSpacing + mRectSide,
-                                mCornerRadius,
-                                mCornerRadius,
-                                mPaintReference
-                        );
-                    }
-                    break;
-            }
+        public OnboardingOverlay build()  {
+            return new OnboardingOverlay(this);
         }
 
-        private void setUpRoundRectAnimator() {
-            float extra = DpPxUtils.pxToDp(8);
-            valueAnimator = ValueAnimator.ofFloat(0f, extra);
-            valueAnimator.addUpdateListener(animation -> {
-                mRectSide = (float) animation.getAnimatedValue();
-                invalidate();
-            });
-            valueAnimator.setRepeatCount(ValueAnimator.INFINITE);
-            valueAnimator.setRepeatMode(ValueAnimator.REVERSE);
-            valueAnimator.setDuration(500L);
-        }
-
-        private void setUpCircleAnimator() {
-            float extra = DpPxUtils.pxToDp(8);
-            valueAnimator = ValueAnimator.ofFloat(mRadius, mRadius + extra);
-            valueAnimator.addUpdateListener(animation -> {
-                mRadius = (float) animation.getAnimatedValue();
-                invalidate();
-            });
-            valueAnimator.setRepeatCount(ValueAnimator.INFINITE);
-            valueAnimator.setRepeatMode(ValueAnimator.REVERSE);
-            valueAnimator.setDuration(500L);
+        /**
+         * Builds the overlay and prepares it for the given view ahead of time, see
+         * {@link OnboardingOverlay#prepare(View)}.
+         */
+        public OnboardingOverlay prepare(@NonNull View view) {
+            OnboardingOverlay overlay = build();
+            overlay.prepare(view);
+            return overlay;
         }
 
     }
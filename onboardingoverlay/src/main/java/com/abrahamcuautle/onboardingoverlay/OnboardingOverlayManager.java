@@ -0,0 +1,106 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+
+/**
+ * Shows the overlays requested in an Activity one at a time, in the single window of its host.
+ * Requests made while an overlay is showing wait in a queue ordered by priority, and a request
+ * for a target and key that is already showing or queued is dropped. An overlay shown directly
+ * on the same Activity takes the window over, the queue moves on once it is dismissed.
+ */
+public final class OnboardingOverlayManager {
+
+    public static final int PRIORITY_DEFAULT = 0;
+
+    private final OverlayHost mHost;
+
+    private final OverlayQueue<OnboardingOverlay> mQueue = new OverlayQueue<>();
+
+    @Nullable
+    private OverlayQueue.Entry<OnboardingOverlay> mCurrent;
+
+    OnboardingOverlayManager(@NonNull OverlayHost host) {
+        mHost = host;
+    }
+
+    /**
+     * @param view any view of the Activity
+     */
+    @NonNull
+    public static OnboardingOverlayManager of(@NonNull View view) {
+        return OverlayHost.obtain(view.getContext(), view).getManager();
+    }
+
+    public boolean enqueue(@NonNull OnboardingOverlay overlay, @NonNull View target) {
+        return enqueue(overlay, target, null, PRIORITY_DEFAULT);
+    }
+
+    /**
+     * @param key      identifies the overlay among the ones for the same target
+     * @param priority higher priorities are shown first, requests with the same priority in the
+     *                 order they were made
+     * @return false if the request was dropped because the same target and key is already
+     * showing or queued
+     */
+    public boolean enqueue(@NonNull OnboardingOverlay overlay, @NonNull View target,
+                           @Nullable String key, int priority) {
+        if (mCurrent != null && mCurrent.matches(target, key)) {
+            return false;
+        }
+        if (!mQueue.offer(overlay, target, key, priority)) {
+            return false;
+        }
+        overlay.setManager(this);
+        if (mCurrent == null) {
+            showNext();
+        }
+        return true;
+    }
+
+    /**
+     * Drops the queued requests, the overlay on screen keeps showing.
+     */
+    public void clear() {
+        mQueue.clear();
+    }
+
+    void onOverlayDismissed(@NonNull OnboardingOverlay overlay) {
+        if (mCurrent == null || mCurrent.item != overlay) {
+            return;
+        }
+        mCurrent = null;
+        showNext();
+    }
+
+    /**
+     * Called when the host has nothing left to show, an overlay shown directly may have replaced
+     * the current one of the queue.
+     */
+    void onHostIdle() {
+        if (mCurrent == null) {
+            showNext();
+        }
+    }
+
+    private void showNext() {
+        //Never replaces an overlay shown directly, it continues from onHostIdle
+        if (!mHost.isIdle()) {
+            return;
+        }
+        OverlayQueue.Entry<OnboardingOverlay> next;
+        while ((next = mQueue.poll()) != null) {
+            View target = (View) next.target;
+            //Targets that went away while queued are skipped
+            if (ViewCompat.isAttachedToWindow(target) && target.getWidth() > 0 && target.getHeight() > 0) {
+                mCurrent = next;
+                next.item.show(target);
+                return;
+            }
+        }
+    }
+
+}
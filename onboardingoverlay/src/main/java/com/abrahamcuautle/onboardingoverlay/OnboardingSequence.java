@@ -0,0 +1,185 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows several overlays one after another in the same window. The cutout moves from one target
+ * to the next and the content of the next step is built while the current one is on screen.
+ */
+public class OnboardingSequence {
+
+    private final List<OnboardingOverlay> mOverlays;
+
+    private final List<View> mTargets;
+
+    private int mCurrentStep = -1;
+
+    private boolean mIsAdvancing;
+
+    @Nullable
+    private OnFinishListener mOnFinishListener;
+
+    @Nullable
+    private MessageQueue.IdleHandler mPendingPrepare;
+
+    public interface OnFinishListener {
+        void onFinish();
+    }
+
+    private OnboardingSequence(Builder builder) {
+        this.mOverlays = builder.overlays;
+        this.mTargets = builder.targets;
+        for (OnboardingOverlay overlay : mOverlays) {
+            overlay.setSequence(this);
+        }
+    }
+
+    public void start() {
+        if (mOverlays.isEmpty() || mCurrentStep != -1) {
+            return;
+        }
+        int step = findShowableStep(0);
+        if (step == -1) {
+            //No target can be highlighted, the sequence ends right away
+            if (mOnFinishListener != null) {
+                mOnFinishListener.onFinish();
+            }
+            return;
+        }
+        showStep(step);
+    }
+
+    public void next() {
+        if (mCurrentStep == -1) {
+            return;
+        }
+        int step = findShowableStep(mCurrentStep + 1);
+        if (step != -1) {
+            showStep(step);
+        } else {
+            finish();
+        }
+    }
+
+    public void finish() {
+        if (mCurrentStep == -1) {
+            return;
+        }
+        mOverlays.get(mCurrentStep).dismiss();
+    }
+
+    public int getCurrentStep() {
+        return mCurrentStep;
+    }
+
+    public void setOnFinishListener(@Nullable OnFinishListener onFinishListener) {
+        this.mOnFinishListener = onFinishListener;
+    }
+
+    /**
+     * Called when the user confirms the step on screen.
+     *
+     * @return false when there is no next step and the overlay has to close itself
+     */
+    boolean advanceFrom(@NonNull OnboardingOverlay overlay) {
+        if (mCurrentStep == -1 || mOverlays.get(mCurrentStep) != overlay) {
+            return false;
+        }
+        int step = findShowableStep(mCurrentStep + 1);
+        if (step == -1) {
+            return false;
+        }
+        showStep(step);
+        return true;
+    }
+
+    void onStepDismissed(@NonNull OnboardingOverlay overlay) {
+        if (mIsAdvancing || mCurrentStep == -1 || mOverlays.get(mCurrentStep) != overlay) {
+            return;
+        }
+        mCurrentStep = -1;
+        cancelPendingPrepare();
+        if (mOnFinishListener != null) {
+            mOnFinishListener.onFinish();
+        }
+    }
+
+    private void showStep(int step) {
+        cancelPendingPrepare();
+        //Replacing the current step dismisses it, which must not be taken as the end of the sequence
+        mIsAdvancing = true;
+        try {
+            mOverlays.get(step).show(mTargets.get(step));
+        } finally {
+            mIsAdvancing = false;
+        }
+        mCurrentStep = step;
+
+        if (step + 1 < mOverlays.size()) {
+            scheduleNextStepPreparation(step + 1);
+        }
+    }
+
+    /**
+     * Steps whose target is detached or not laid out cannot be shown and are skipped.
+     *
+     * @return the first step from the given one that can be shown, or -1 if there is none
+     */
+    private int findShowableStep(int from) {
+        for (int step = from; step < mOverlays.size(); step++) {
+            View target = mTargets.get(step);
+            if (ViewCompat.isAttachedToWindow(target)
+                    && target.getWidth() > 0
+                    && target.getHeight() > 0) {
+                return step;
+            }
+        }
+        return -1;
+    }
+
+    private void scheduleNextStepPreparation(int step) {
+        final OverlayHost host = mOverlays.get(mCurrentStep).getHost();
+        final OnboardingOverlay overlay = mOverlays.get(step);
+        mPendingPrepare = () -> {
+            mPendingPrepare = null;
+            host.prepare(overlay);
+            return false;
+        };
+        Looper.myQueue().addIdleHandler(mPendingPrepare);
+    }
+
+    private void cancelPendingPrepare() {
+        if (mPendingPrepare != null) {
+            Looper.myQueue().removeIdleHandler(mPendingPrepare);
+            mPendingPrepare = null;
+        }
+    }
+
+    public static class Builder {
+
+        private final List<OnboardingOverlay> overlays = new ArrayList<>();
+
+        private final List<View> targets = new ArrayList<>();
+
+        public Builder addStep(@NonNull OnboardingOverlay.Builder builder, @NonNull View target) {
+            overlays.add(builder.build());
+            targets.add(target);
+            return this;
+        }
+
+        public OnboardingSequence build() {
+            return new OnboardingSequence(this);
+        }
+
+    }
+
+}
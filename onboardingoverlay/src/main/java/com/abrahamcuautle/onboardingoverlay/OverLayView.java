@@ -0,0 +1,711 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.hardware.display.DisplayManager;
+import android.os.Build;
+import android.provider.Settings;
+import android.view.Display;
+import android.view.Gravity;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewAnimationUtils;
+import android.view.ViewTreeObserver;
+import android.view.WindowInsets;
+import android.view.WindowManager;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.annotation.FontRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.view.ViewCompat;
+import androidx.core.widget.TextViewCompat;
+import androidx.tracing.Trace;
+
+import com.google.android.material.button.MaterialButton;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+class OverLayView extends FrameLayout {
+
+    //Has a native counterpart, so it does not pull the reveal back to the main thread
+    private static final Interpolator REVEAL_INTERPOLATOR = new AccelerateDecelerateInterpolator();
+
+    private final WindowManager mWindowManager;
+
+    private final BackgroundOverlayView mBackgroundOverlayView;
+
+    @Nullable
+    private OnboardingOverlay mOverlay;
+
+    @Nullable
+    private Content mContent;
+
+    //Content built ahead of time for the overlay that is going to be shown next
+    @Nullable
+    private Content mPreparedContent;
+
+    @Nullable
+    private OnboardingOverlay mPreparedOverlay;
+
+    private final TooltipPlacement mPlacement = new TooltipPlacement();
+
+    private final StyleCache mStyleCache;
+
+    //Kept by the host for the whole Activity
+    private final AdaptiveTier mTier = new AdaptiveTier();
+
+    private final boolean mIsLowRamDevice;
+
+    //Pixel sizes for the density of the host Context
+    private Dimensions mDimensions;
+
+    //Identifies the async trace sections of this view's reveals
+    private final int mTraceCookie = System.identityHashCode(this);
+
+    private final RevealListener mOpenRevealListener = new RevealListener("OverLayView#openReveal");
+
+    private final RevealListener mCloseRevealListener = new RevealListener("OverLayView#closeReveal");
+
+    private int mRunningReveals;
+
+    //Geometry of the last bind, read once per bind
+    private int mAreaWidth;
+
+    private int mAreaHeight;
+
+    private final Rect mSafeInsets = new Rect();
+
+    //Places the showing overlay again once the Activity is laid out in a new configuration
+    private final ViewTreeObserver.OnGlobalLayoutListener mConfigurationLayoutListener =
+            this::onConfigurationLayout;
+
+    @Nullable
+    private View mConfigurationTarget;
+
+    @Nullable
+    private ViewTreeObserver mConfigurationObserver;
+
+    OverLayView(@NonNull Context context, @Nullable WindowManager windowManager) {
+        super(context);
+        mWindowManager = windowManager;
+        mStyleCache = new StyleCache(context);
+        mDimensions = Dimensions.get(context.getResources().getDisplayMetrics().density);
+        mBackgroundOverlayView = new BackgroundOverlayView(context, mDimensions);
+        mBackgroundOverlayView.setOnPulseFrameListener(this::onPulseFrame);
+        addView(mBackgroundOverlayView);
+        ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        mIsLowRamDevice = activityManager != null && activityManager.isLowRamDevice();
+        //Takes the back key when it lives in the Activity's window instead of its own one
+        setFocusable(true);
+        setFocusableInTouchMode(true);
+    }
+
+    void bind(@NonNull OnboardingOverlay overlay) {
+        mOverlay = overlay;
+        setVisibility(VISIBLE);
+        updateDimensions();
+        updateGeometry(overlay);
+        updateTier(overlay);
+
+        StyleCache.ResolvedStyle style = mStyleCache.get(overlay.getStyle());
+        if (mPreparedOverlay == overlay && mPreparedContent.matches(style, overlay)) {
+            //Texts were set and measured while the previous overlay was on screen
+            Content previous = mContent;
+            mContent = mPreparedContent;
+            mPreparedContent = previous;
+            mPreparedOverlay = null;
+            if (previous != null) {
+                previous.container.setVisibility(GONE);
+            }
+            mContent.container.setVisibility(VISIBLE);
+        } else {
+            //Views are styled on construction, so the content is only rebuilt when the style changes
+            if (mContent == null || !mContent.matches(style, overlay)) {
+                if (mContent != null) {
+                    removeView(mContent.container);
+                }
+                mContent = createContent(style, overlay.isFlatContent());
+                addView(mContent.container);
+            }
+            mContent.bind(overlay);
+        }
+
+        //An attached host moves the cutout to the new target instead of revealing again
+        boolean isAttached = isAttachedToWindow();
+        mBackgroundOverlayView.bind(overlay, isAttached);
+        generateLayoutParams(mContent.container);
+    }
+
+    @NonNull
+    StyleCache.ResolvedStyle getStyle(@StyleRes int style) {
+        return mStyleCache.get(style);
+    }
+
+    void unbind() {
+        mOverlay = null;
+        mBackgroundOverlayView.unbind();
+    }
+
+    void setHostStarted(boolean isHostStarted) {
+        mBackgroundOverlayView.setHostStarted(isHostStarted);
+    }
+
+    /**
+     * Builds and measures the content of an overlay that is not showing yet, so that binding it
+     * later only has to place it.
+     */
+    void prepare(@NonNull OnboardingOverlay overlay) {
+        if (overlay == mOverlay || overlay == mPreparedOverlay) {
+            return;
+        }
+
+        StyleCache.ResolvedStyle style = mStyleCache.get(overlay.getStyle());
+        if (mPreparedContent == null || !mPreparedContent.matches(style, overlay)) {
+            if (mPreparedContent != null) {
+                removeView(mPreparedContent.container);
+            }
+            mPreparedContent = createContent(style, overlay.isFlatContent());
+            mPreparedContent.container.setVisibility(GONE);
+            addView(mPreparedContent.container);
+        }
+        mPreparedContent.bind(overlay);
+        mPreparedOverlay = overlay;
+
+        int widthContent = getWidthContent();
+        int widthSpec = MeasureSpec.makeMeasureSpec(widthContent, MeasureSpec.EXACTLY);
+        int heightSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        mPreparedContent.container.measure(widthSpec, heightSpec);
+    }
+
+    private int getWidthContent() {
+        if (mAreaWidth == 0) {
+            //Nothing was bound yet, the Activity's window most likely fills the display
+            DisplayGeometry display = getDisplayGeometry();
+            return TooltipPlacement.getContentWidth(display.width, display.height, mDimensions);
+        }
+        return TooltipPlacement.getContentWidth(mAreaWidth, mAreaHeight, mDimensions);
+    }
+
+    @NonNull
+    private DisplayGeometry getDisplayGeometry() {
+        return DisplayGeometry.get(getContext(), getHostDisplay());
+    }
+
+    /**
+     * The display of the Activity, an Activity's window manager is bound to it.
+     */
+    @NonNull
+    private Display getHostDisplay() {
+        if (mWindowManager != null) {
+            return mWindowManager.getDefaultDisplay();
+        }
+        DisplayManager displayManager =
+                (DisplayManager) getContext().getSystemService(Context.DISPLAY_SERVICE);
+        return displayManager.getDisplay(Display.DEFAULT_DISPLAY);
+    }
+
+    /**
+     * Reads everything placing the content depends on in a single pass: the area of the
+     * Activity's window, which is smaller than the display in split-screen, the insets of its
+     * system bars and display cutout, and the cached size and density of its display.
+     */
+    private void updateGeometry(@NonNull OnboardingOverlay overlay) {
+        DisplayGeometry display = getDisplayGeometry();
+        View referenceView = overlay.getReferenceView();
+        View root = referenceView != null ? referenceView.getRootView() : null;
+        if (root != null && root.getWidth() > 0 && root.getHeight() > 0) {
+            mAreaWidth = root.getWidth();
+            mAreaHeight = root.getHeight();
+        } else {
+            mAreaWidth = display.width;
+            mAreaHeight = display.height;
+        }
+
+        mSafeInsets.setEmpty();
+        if (root != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            WindowInsets insets = root.getRootWindowInsets();
+            if (insets != null) {
+                mSafeInsets.set(
+                        insets.getSystemWindowInsetLeft(),
+                        insets.getSystemWindowInsetTop(),
+                        insets.getSystemWindowInsetRight(),
+                        insets.getSystemWindowInsetBottom());
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && insets.getDisplayCutout() != null) {
+                    mSafeInsets.left = Math.max(mSafeInsets.left, insets.getDisplayCutout().getSafeInsetLeft());
+                    mSafeInsets.top = Math.max(mSafeInsets.top, insets.getDisplayCutout().getSafeInsetTop());
+                    mSafeInsets.right = Math.max(mSafeInsets.right, insets.getDisplayCutout().getSafeInsetRight());
+                    mSafeInsets.bottom = Math.max(mSafeInsets.bottom, insets.getDisplayCutout().getSafeInsetBottom());
+                }
+            }
+        }
+    }
+
+    /**
+     * The animator duration scale is read on every bind, it can be changed while the app runs.
+     */
+    private void updateTier(@NonNull OnboardingOverlay overlay) {
+        float animatorScale = Settings.Global.getFloat(
+                getContext().getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+        mTier.setDevice(mIsLowRamDevice, animatorScale, getDisplayGeometry().refreshRate);
+        mTier.resetSample();
+        applyTier();
+        overlay.onTierChanged(mTier.getTier());
+    }
+
+    private void onPulseFrame(long frameMillis) {
+        OverlayMetrics metrics = mOverlay != null ? mOverlay.getMetrics() : null;
+        if (metrics != null && mTier.isJank(frameMillis)) {
+            metrics.onJankFrame(mRunningReveals > 0);
+        }
+        if (mTier.onFrame(frameMillis)) {
+            applyTier();
+            if (mOverlay != null) {
+                mOverlay.onTierChanged(mTier.getTier());
+            }
+        }
+    }
+
+    private void applyTier() {
+        int tier = mTier.getTier();
+        mBackgroundOverlayView.setPulseEnabled(tier == OnboardingOverlay.Tier.FULL);
+        mBackgroundOverlayView.setAntiAlias(tier != OnboardingOverlay.Tier.MINIMAL);
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        DisplayGeometry.invalidate(getHostDisplay().getDisplayId());
+        updateDimensions();
+        View referenceView = mOverlay != null ? mOverlay.getReferenceView() : null;
+        if (referenceView == null) {
+            return;
+        }
+        //The Activity's window may be laid out before or after this call, so both are covered
+        placeAgain();
+        if (mConfigurationObserver == null) {
+            mConfigurationTarget = referenceView;
+            mConfigurationObserver = referenceView.getViewTreeObserver();
+            mConfigurationObserver.addOnGlobalLayoutListener(mConfigurationLayoutListener);
+        }
+    }
+
+    private void onConfigurationLayout() {
+        //An observer that died was merged into the one of the window the view attached to
+        ViewTreeObserver observer = mConfigurationObserver.isAlive()
+                ? mConfigurationObserver
+                : mConfigurationTarget.getViewTreeObserver();
+        observer.removeOnGlobalLayoutListener(mConfigurationLayoutListener);
+        mConfigurationObserver = null;
+        mConfigurationTarget = null;
+        placeAgain();
+    }
+
+    /**
+     * Reads the area, the insets and the targets again, then moves the cutouts and the content
+     * of the showing overlay.
+     */
+    private void placeAgain() {
+        if (mOverlay == null || mContent == null || mOverlay.getReferenceView() == null) {
+            return;
+        }
+        mOverlay.updateTargetsGeometry();
+        updateGeometry(mOverlay);
+        mBackgroundOverlayView.bind(mOverlay, false);
+        generateLayoutParams(mContent.container);
+    }
+
+    /**
+     * A detached host does not get configuration changes, so binding checks the density too.
+     */
+    private void updateDimensions() {
+        float density = getResources().getDisplayMetrics().density;
+        if (mDimensions.density != density) {
+            mDimensions = Dimensions.get(density);
+            mBackgroundOverlayView.setDimensions(mDimensions);
+        }
+    }
+
+    private void generateLayoutParams(View ll) {
+        Trace.beginSection("OverLayView#generateLayoutParams");
+        try {
+            placeContent(ll);
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void placeContent(View ll){
+        View referenceView = mOverlay.getReferenceView();
+        if(referenceView != null && !ViewCompat.isAttachedToWindow(referenceView)) {
+            return ;
+        }
+
+        int widthContent = TooltipPlacement.getContentWidth(mAreaWidth, mAreaHeight, mDimensions);
+
+        //Measuring is skipped by the view itself while the content and its width stay the same
+        int widthSpec = MeasureSpec.makeMeasureSpec(widthContent, MeasureSpec.EXACTLY);
+        int heightSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        ll.measure(widthSpec, heightSpec);
+
+        mPlacement.solve(
+                mAreaWidth,
+                mAreaHeight,
+                mOverlay.getReferenceViewX(),
+                mOverlay.getReferenceViewY(),
+                referenceView.getWidth(),
+                referenceView.getHeight(),
+                ll.getMeasuredHeight(),
+                mOverlay.getMode() == OnboardingOverlay.Mode.CIRCLE,
+                mDimensions);
+
+        //The content is kept out of the system bars and the display cutout
+        int leftMargin = Math.max(mPlacement.leftMargin, mSafeInsets.left);
+        int topMargin = (mPlacement.gravity & Gravity.TOP) == Gravity.TOP
+                ? Math.max(mPlacement.topMargin, mSafeInsets.top)
+                : mPlacement.topMargin;
+        int rightMargin = Math.max(mPlacement.rightMargin, mSafeInsets.right);
+        int bottomMargin = (mPlacement.gravity & Gravity.BOTTOM) == Gravity.BOTTOM
+                ? Math.max(mPlacement.bottomMargin, mSafeInsets.bottom)
+                : mPlacement.bottomMargin;
+
+        //Layout params are reused, the previous overlay may have used other margins though
+        LayoutParams lp = ll.getLayoutParams() instanceof LayoutParams
+                ? (LayoutParams) ll.getLayoutParams()
+                : new LayoutParams(mPlacement.width, LayoutParams.WRAP_CONTENT);
+        if (lp.gravity == mPlacement.gravity
+                && lp.width == mPlacement.width
+                && lp.height == LayoutParams.WRAP_CONTENT
+                && lp.leftMargin == leftMargin
+                && lp.topMargin == topMargin
+                && lp.rightMargin == rightMargin
+                && lp.bottomMargin == bottomMargin
+                && ll.getLayoutParams() == lp) {
+            return;
+        }
+        lp.gravity = mPlacement.gravity;
+        lp.width = mPlacement.width;
+        lp.height = LayoutParams.WRAP_CONTENT;
+        lp.leftMargin = leftMargin;
+        lp.topMargin = topMargin;
+        lp.rightMargin = rightMargin;
+        lp.bottomMargin = bottomMargin;
+        ll.setLayoutParams(lp);
+    }
+
+    /**
+     * Follows a tracked target that moved or was resized: the cutout jumps to it and the content
+     * is placed again, which relayouts it only if its position actually changed.
+     */
+    void onTargetMoved() {
+        if (mOverlay == null || mContent == null) {
+            return;
+        }
+        mBackgroundOverlayView.bind(mOverlay, false);
+        generateLayoutParams(mContent.container);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        startOpenCircleReveal();
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        OverlayMetrics metrics = mOverlay != null ? mOverlay.getMetrics() : null;
+        if (metrics != null && metrics.isWaitingForFirstDraw()) {
+            metrics.onFirstDraw(System.nanoTime());
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        //In the decor view, touches not handled by the content must not reach the Activity below
+        return true;
+    }
+
+    private void startOpenCircleReveal() {
+        if (!canReveal()) {
+            return;
+        }
+        long duration = AdaptiveTier.getRevealDuration(mTier.getTier(), mOverlay.getRevealDuration());
+        if (duration == 0 || !isHardwareAccelerated()) {
+            return;
+        }
+        Animator animator = createCircularReveal(false);
+        animator.setDuration(duration);
+        animator.start();
+    }
+
+    private void startCloseCircleReveal() {
+        if (mOverlay == null) {
+            return;
+        }
+
+        final OnboardingOverlay overlay = mOverlay;
+        if (!canReveal()) {
+            //The reveal is centered on the reference view, without it the overlay just closes
+            onCloseRevealEnd(overlay);
+            return;
+        }
+        long duration = AdaptiveTier.getRevealDuration(mTier.getTier(), overlay.getDismissDuration());
+        if (duration == 0 || !isHardwareAccelerated()) {
+            //Without a RenderThread the reveal would be drawn by the main thread, frame by frame
+            onCloseRevealEnd(overlay);
+            return;
+        }
+        Animator animator = createCircularReveal(true);
+        animator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                super.onAnimationEnd(animation);
+                onCloseRevealEnd(overlay);
+            }
+        });
+        animator.setDuration(duration);
+        animator.start();
+    }
+
+    private boolean canReveal() {
+        return mOverlay != null
+                && mOverlay.getReferenceView() != null
+                && ViewCompat.isAttachedToWindow(mOverlay.getReferenceView());
+    }
+
+    /**
+     * A circular reveal is animated by the RenderThread as long as its interpolator has a native
+     * counterpart, so a busy main thread does not make it stutter. Its radius reaches the corner
+     * of the area farthest from the target, the reveal covers the whole overlay when it ends.
+     */
+    @NonNull
+    private Animator createCircularReveal(boolean isClosing) {
+        View referenceView = mOverlay.getReferenceView();
+        float cx = mOverlay.getReferenceViewX() + referenceView.getWidth() / 2f;
+        float cy = mOverlay.getReferenceViewY() + referenceView.getHeight() / 2f;
+        float radius = CutoutGeometry.getRevealRadius(cx, cy, mAreaWidth, mAreaHeight);
+
+        Animator animator = ViewAnimationUtils.createCircularReveal(
+                this, (int) cx, (int) cy, isClosing ? radius : 0, isClosing ? 0 : radius);
+        animator.setInterpolator(REVEAL_INTERPOLATOR);
+        animator.addListener(isClosing ? mCloseRevealListener : mOpenRevealListener);
+        return animator;
+    }
+
+    /**
+     * Traces a reveal as an async section, it runs on the RenderThread, and tells whether jank
+     * frames happened while revealing.
+     */
+    private final class RevealListener extends AnimatorListenerAdapter {
+
+        private final String mSectionName;
+
+        RevealListener(@NonNull String sectionName) {
+            mSectionName = sectionName;
+        }
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            mRunningReveals++;
+            Trace.beginAsyncSection(mSectionName, mTraceCookie);
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            mRunningReveals--;
+            Trace.endAsyncSection(mSectionName, mTraceCookie);
+        }
+
+    }
+
+    private void onCloseRevealEnd(@NonNull OnboardingOverlay overlay) {
+        //The host may have been rebound to another overlay while closing
+        if (mOverlay == overlay) {
+            setVisibility(GONE);
+        }
+        overlay.dismiss();
+    }
+
+    private Content createContent(@NonNull StyleCache.ResolvedStyle style, boolean isFlat) {
+        Content content = new Content(style, isFlat);
+        if (isFlat) {
+            content.flatView = new FlatContentView(style, mDimensions);
+            content.flatView.setOnFontLoadedListener(this::onFontLoaded);
+            content.flatView.setOnClickListener(
+                    v -> onActionRequested(OverlayMetrics.DismissReason.BUTTON));
+            content.container = content.flatView;
+            return content;
+        }
+
+        LinearLayout container = new LinearLayout(getContext());
+        container.setOrientation(LinearLayout.VERTICAL);
+        content.container = container;
+        Context themedContext = style.themedContext;
+
+        //Add Title TextView
+        LinearLayout.LayoutParams lptvt = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT);
+        content.title = new TextView(themedContext, null, 0, style.titleStyle);
+        applyFont(content.title, style.titleFont);
+        container.addView(content.title, lptvt);
+
+        //Add Description TextView
+        LinearLayout.LayoutParams lptvd = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT);
+        lptvd.topMargin = mDimensions.descriptionMarginTop;
+        content.description = new TextView(themedContext, null, 0, style.descriptionStyle);
+        applyFont(content.description, style.descriptionFont);
+        container.addView(content.description, lptvd);
+
+        //Add button
+        LinearLayout.LayoutParams lpbtn = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.WRAP_CONTENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT);
+        lpbtn.rightMargin = mDimensions.buttonMarginEnd;
+        lpbtn.gravity = Gravity.END;
+        content.button = new MaterialButton(themedContext, null, R.attr.onboardingButtonStyle);
+        applyFont(content.button, style.buttonFont);
+        content.button.setOnClickListener(
+                v -> onActionRequested(OverlayMetrics.DismissReason.BUTTON));
+        container.addView(content.button, lpbtn);
+
+        return content;
+    }
+
+    /**
+     * Sets the font of the style right away if it is loaded, otherwise once it is.
+     */
+    private void applyFont(@NonNull TextView textView, @FontRes int fontRes) {
+        Typeface typeface = FontCache.get(textView.getContext(), fontRes, loaded -> {
+            textView.setTypeface(loaded);
+            onFontLoaded();
+        });
+        if (typeface != null) {
+            textView.setTypeface(typeface);
+        }
+    }
+
+    /**
+     * A font loaded after the content was placed changes its height, so it is placed again.
+     */
+    private void onFontLoaded() {
+        if (mOverlay != null && mContent != null) {
+            generateLayoutParams(mContent.container);
+        }
+    }
+
+    private void onActionRequested(@OverlayMetrics.DismissReason int reason) {
+        if (mOverlay != null) {
+            mOverlay.setDismissReason(reason);
+        }
+        //The button moves a sequence to its next step, the back key leaves it
+        OnboardingSequence sequence = mOverlay != null ? mOverlay.getSequence() : null;
+        if (sequence != null
+                && reason != OverlayMetrics.DismissReason.BACK
+                && sequence.advanceFrom(mOverlay)) {
+            return;
+        }
+        startCloseCircleReveal();
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        if (event.getKeyCode() == KeyEvent.KEYCODE_BACK) {
+            if (getKeyDispatcherState() == null) {
+                return super.dispatchKeyEvent(event);
+            }
+
+            if (event.getAction() == KeyEvent.ACTION_DOWN && event.getRepeatCount() == 0) {
+                final KeyEvent.DispatcherState state = getKeyDispatcherState();
+                if (state != null) {
+                    state.startTracking(event, this);
+                }
+                return true;
+            } else if (event.getAction() == KeyEvent.ACTION_UP) {
+                final KeyEvent.DispatcherState state = getKeyDispatcherState();
+                if (state != null && state.isTracking(event) && !event.isCanceled()) {
+                    onActionRequested(OverlayMetrics.DismissReason.BACK);
+                    return true;
+                }
+            }
+            return super.dispatchKeyEvent(event);
+        } else {
+            return super.dispatchKeyEvent(event);
+        }
+    }
+
+    private static final class Content {
+
+        final StyleCache.ResolvedStyle style;
+
+        final boolean isFlat;
+
+        View container;
+
+        //Regular content
+        TextView title;
+
+        TextView description;
+
+        MaterialButton button;
+
+        //Flat content, also the container
+        FlatContentView flatView;
+
+        Content(StyleCache.ResolvedStyle style, boolean isFlat) {
+            this.style = style;
+            this.isFlat = isFlat;
+        }
+
+        boolean matches(@NonNull StyleCache.ResolvedStyle style, @NonNull OnboardingOverlay overlay) {
+            return this.style == style && isFlat == overlay.isFlatContent();
+        }
+
+        void bind(@NonNull OnboardingOverlay overlay) {
+            if (isFlat) {
+                flatView.bind(overlay);
+                return;
+            }
+            setText(title, overlay.getTextTitle(), overlay.getPrecomputedTitle());
+            setText(description, overlay.getTextDescription(), overlay.getPrecomputedDescription());
+            button.setText(overlay.getTextButton());
+        }
+
+        /**
+         * Uses the precomputed text only if it is ready, waiting for it would block the main
+         * thread as long as laying it out here.
+         */
+        private static void setText(@NonNull TextView textView, @Nullable String text,
+                                    @Nullable Future<PrecomputedTextCompat> precomputedText) {
+            if (precomputedText != null && precomputedText.isDone()) {
+                try {
+                    TextViewCompat.setPrecomputedText(textView, precomputedText.get());
+                    return;
+                } catch (ExecutionException | InterruptedException | IllegalArgumentException e) {
+                    //Params no longer match the view, e.g. the font scale changed since building
+                }
+            }
+            textView.setText(text);
+        }
+
+    }
+
+}
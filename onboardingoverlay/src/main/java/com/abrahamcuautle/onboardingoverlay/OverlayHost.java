@@ -0,0 +1,236 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.graphics.PixelFormat;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.tracing.Trace;
+
+/**
+ * Keeps a single overlay window and its view hierarchy per Activity. The host is stored as a tag
+ * on the Activity's root view, so it lives exactly as long as the Activity's views do.
+ * Overlays are shown either in a panel window of their own or as the last child of the
+ * Activity's decor view, which renders them within the Activity's surface.
+ */
+final class OverlayHost {
+
+    private final WindowManager mWindowManager;
+
+    private final OverLayView mOverlayView;
+
+    private final WindowManager.LayoutParams mLayoutParams;
+
+    @Nullable
+    private final ViewGroup mDecorView;
+
+    private final LifecycleEventObserver mLifecycleObserver;
+
+    @Nullable
+    private OnboardingOverlay mCurrent;
+
+    @Nullable
+    private OnboardingOverlayManager mManager;
+
+    //Views added to a window are only attached on its first traversal, so this is tracked here
+    private boolean mIsAdded;
+
+    private boolean mIsInDecorView;
+
+    private OverlayHost(@NonNull Context context, @NonNull View rootView) {
+        mWindowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        Trace.beginSection("OverLayView#init");
+        try {
+            mOverlayView = new OverLayView(context, mWindowManager);
+        } finally {
+            Trace.endSection();
+        }
+        mLayoutParams = new WindowManager.LayoutParams(
+                WindowManager.LayoutParams.MATCH_PARENT,
+                WindowManager.LayoutParams.MATCH_PARENT,
+                WindowManager.LayoutParams.TYPE_APPLICATION_PANEL,
+                //Hardware accelerated even if the Activity's window manager does not add it,
+                //the reveal animations run on the RenderThread only then
+                WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN |
+                        WindowManager.LayoutParams.FLAG_LAYOUT_INSET_DECOR |
+                        WindowManager.LayoutParams.FLAG_HARDWARE_ACCELERATED,
+                PixelFormat.TRANSLUCENT);
+        mDecorView = rootView instanceof ViewGroup ? (ViewGroup) rootView : null;
+
+        mLifecycleObserver = this::onLifecycleEvent;
+        LifecycleOwner lifecycleOwner = findLifecycleOwner(context);
+        if (lifecycleOwner != null) {
+            lifecycleOwner.getLifecycle().addObserver(mLifecycleObserver);
+        }
+    }
+
+    @Nullable
+    private static Activity findActivity(@NonNull Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) {
+                return (Activity) context;
+            }
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+
+    @Nullable
+    private static LifecycleOwner findLifecycleOwner(@NonNull Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof LifecycleOwner) {
+                return (LifecycleOwner) context;
+            }
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+
+    private void onLifecycleEvent(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+        switch (event) {
+            case ON_START:
+                mOverlayView.setHostStarted(true);
+                break;
+            case ON_STOP:
+                mOverlayView.setHostStarted(false);
+                break;
+            case ON_DESTROY:
+                source.getLifecycle().removeObserver(mLifecycleObserver);
+                //Nothing queued may be shown by the dismissal of the current overlay
+                if (mManager != null) {
+                    mManager.clear();
+                }
+                if (mCurrent != null) {
+                    release(mCurrent);
+                }
+                break;
+        }
+    }
+
+    @NonNull
+    static OverlayHost obtain(@NonNull Context context, @NonNull View referenceView) {
+        View root = referenceView.getRootView();
+        Object tag = root.getTag(R.id.onboarding_overlay_host);
+        if (tag instanceof OverlayHost) {
+            return (OverlayHost) tag;
+        }
+        OverlayHost host = new OverlayHost(context, root);
+        root.setTag(R.id.onboarding_overlay_host, host);
+        return host;
+    }
+
+    /**
+     * The host of the Activity the context belongs to, found through its decor view, which is the
+     * root of the Activity's views.
+     *
+     * @return null if the context is not an Activity's
+     */
+    @Nullable
+    static OverlayHost obtain(@NonNull Context context) {
+        Activity activity = findActivity(context);
+        if (activity == null || activity.getWindow() == null) {
+            return null;
+        }
+        return obtain(context, activity.getWindow().getDecorView());
+    }
+
+    @NonNull
+    OnboardingOverlayManager getManager() {
+        if (mManager == null) {
+            mManager = new OnboardingOverlayManager(this);
+        }
+        return mManager;
+    }
+
+    void show(@NonNull OnboardingOverlay overlay) {
+        OnboardingOverlay previous = mCurrent;
+        mCurrent = overlay;
+        mOverlayView.bind(overlay);
+        attach(overlay.shouldAttachToDecorView() && mDecorView != null);
+
+        //Told last, a manager may show its next overlay on this host from there
+        if (previous != null && previous != overlay) {
+            previous.onDismissed();
+        }
+    }
+
+    private void attach(boolean inDecorView) {
+        //Rebinding an attached host keeps the same window surface or decor view
+        if (mIsAdded && mIsInDecorView == inDecorView) {
+            return;
+        }
+        detach();
+        if (inDecorView) {
+            mDecorView.addView(mOverlayView, new ViewGroup.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.MATCH_PARENT));
+            //Within the Activity's window the back key only reaches the overlay through focus
+            mOverlayView.requestFocus();
+        } else if (mWindowManager != null) {
+            mWindowManager.addView(mOverlayView, mLayoutParams);
+        } else {
+            return;
+        }
+        mIsAdded = true;
+        mIsInDecorView = inDecorView;
+    }
+
+    private void detach() {
+        if (!mIsAdded) {
+            return;
+        }
+        if (mIsInDecorView) {
+            mDecorView.removeView(mOverlayView);
+        } else {
+            mWindowManager.removeView(mOverlayView);
+        }
+        mIsAdded = false;
+    }
+
+    void onTargetMoved(@NonNull OnboardingOverlay overlay) {
+        if (mCurrent == overlay) {
+            mOverlayView.onTargetMoved();
+        }
+    }
+
+    @NonNull
+    StyleCache.ResolvedStyle getStyle(@StyleRes int style) {
+        return mOverlayView.getStyle(style);
+    }
+
+    void prepare(@NonNull OnboardingOverlay overlay) {
+        mOverlayView.prepare(overlay);
+    }
+
+    void release(@NonNull OnboardingOverlay overlay) {
+        if (mCurrent != overlay) {
+            return;
+        }
+        mCurrent = null;
+        detach();
+        mOverlayView.unbind();
+        overlay.onDismissed();
+        //Its own overlays already showed the next one from onDismissed
+        if (mManager != null && mCurrent == null) {
+            mManager.onHostIdle();
+        }
+    }
+
+    boolean isShowing(@NonNull OnboardingOverlay overlay) {
+        return mCurrent == overlay;
+    }
+
+    boolean isIdle() {
+        return mCurrent == null;
+    }
+
+}
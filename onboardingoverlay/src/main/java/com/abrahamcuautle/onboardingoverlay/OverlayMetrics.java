@@ -0,0 +1,111 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Timings of one showing of an overlay, reported once it is dismissed, see
+ * {@link OnboardingOverlay.Builder#setOnMetricsListener(OnMetricsListener)}. An overlay reuses
+ * the same instance every time it is shown, so measuring never allocates; read it within the
+ * callback. Jank frames are frames of the main thread that missed a vsync while the pulse was
+ * animating, without the pulse they are not measured.
+ */
+public final class OverlayMetrics {
+
+    @IntDef({DismissReason.BUTTON, DismissReason.BACK, DismissReason.PROGRAMMATIC})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface DismissReason {
+        int BUTTON = 0;
+        int BACK = 1;
+        //dismiss(), another overlay shown in its place or the Activity destroyed
+        int PROGRAMMATIC = 2;
+    }
+
+    public interface OnMetricsListener {
+        void onMetrics(@NonNull OverlayMetrics metrics);
+    }
+
+    private long mShowRequestedNanos;
+
+    //0 until the overlay is drawn
+    private long mShownNanos;
+
+    private long mShowLatencyNanos;
+
+    private long mDwellNanos;
+
+    private int mRevealJankFrames;
+
+    private int mPulseJankFrames;
+
+    @DismissReason
+    private int mDismissReason = DismissReason.PROGRAMMATIC;
+
+    OverlayMetrics() {
+    }
+
+    /**
+     * @return time from {@link OnboardingOverlay#show} to the first frame the overlay was drawn
+     * in, or 0 if it was dismissed before being drawn
+     */
+    public long getShowLatencyMillis() {
+        return mShowLatencyNanos / 1_000_000;
+    }
+
+    public int getRevealJankFrames() {
+        return mRevealJankFrames;
+    }
+
+    public int getPulseJankFrames() {
+        return mPulseJankFrames;
+    }
+
+    /**
+     * @return time from the first frame the overlay was drawn in to its dismissal
+     */
+    public long getDwellMillis() {
+        return mDwellNanos / 1_000_000;
+    }
+
+    @DismissReason
+    public int getDismissReason() {
+        return mDismissReason;
+    }
+
+    void onShowRequested(long nanos) {
+        mShowRequestedNanos = nanos;
+        mShownNanos = 0;
+        mShowLatencyNanos = 0;
+        mDwellNanos = 0;
+        mRevealJankFrames = 0;
+        mPulseJankFrames = 0;
+        mDismissReason = DismissReason.PROGRAMMATIC;
+    }
+
+    boolean isWaitingForFirstDraw() {
+        return mShowRequestedNanos != 0 && mShownNanos == 0;
+    }
+
+    void onFirstDraw(long nanos) {
+        mShownNanos = nanos;
+        mShowLatencyNanos = nanos - mShowRequestedNanos;
+    }
+
+    void onJankFrame(boolean isRevealing) {
+        if (isRevealing) {
+            mRevealJankFrames++;
+        } else {
+            mPulseJankFrames++;
+        }
+    }
+
+    void onDismissed(long nanos, @DismissReason int reason) {
+        mDwellNanos = mShownNanos != 0 ? nanos - mShownNanos : 0;
+        mDismissReason = reason;
+        mShowRequestedNanos = 0;
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Pending overlay requests, highest priority first then in request order, a request already
+ * queued for the same target and key is dropped.
+ */
+final class OverlayQueue<T> {
+
+    private final PriorityQueue<Entry<T>> mEntries = new PriorityQueue<>(11, new Comparator<Entry<T>>() {
+        @Override
+        public int compare(Entry<T> first, Entry<T> second) {
+            if (first.priority != second.priority) {
+                return first.priority > second.priority ? -1 : 1;
+            }
+            return Long.compare(first.sequence, second.sequence);
+        }
+    });
+
+    private long mNextSequence;
+
+    /**
+     * @return false if a request for the same target and key is already queued
+     */
+    boolean offer(T item, Object target, String key, int priority) {
+        if (contains(target, key)) {
+            return false;
+        }
+        mEntries.add(new Entry<>(item, target, key, priority, mNextSequence++));
+        return true;
+    }
+
+    boolean contains(Object target, String key) {
+        for (Entry<T> entry : mEntries) {
+            if (entry.matches(target, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the next request to show, or null if there is none
+     */
+    Entry<T> poll() {
+        return mEntries.poll();
+    }
+
+    int size() {
+        return mEntries.size();
+    }
+
+    void clear() {
+        mEntries.clear();
+    }
+
+    static final class Entry<T> {
+
+        final T item;
+
+        final Object target;
+
+        final String key;
+
+        final int priority;
+
+        final long sequence;
+
+        Entry(T item, Object target, String key, int priority, long sequence) {
+            this.item = item;
+            this.target = target;
+            this.key = key;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        boolean matches(Object target, String key) {
+            return this.target == target
+                    && (this.key == null ? key == null : this.key.equals(key));
+        }
+
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Shows an overlay on a RecyclerView item that may not be bound yet. The item is scrolled into
+ * view, the overlay is shown once the item is laid out, and it follows the item when the
+ * RecyclerView binds it to another view, e.g. after a change animation.
+ * RecyclerView is a compileOnly dependency, only apps using this class need it.
+ */
+public final class RecyclerViewTarget {
+
+    //Frames to wait for the item once the RecyclerView has no layout pending
+    private static final int MAX_WAITING_FRAMES = 3;
+
+    private final RecyclerView mRecyclerView;
+
+    private final int mPosition;
+
+    private final long mItemId;
+
+    @Nullable
+    private OnboardingOverlay mOverlay;
+
+    //View the overlay is currently shown on
+    @Nullable
+    private View mItemView;
+
+    private int mWaitingFrames;
+
+    @Nullable
+    private ViewTreeObserver mObserver;
+
+    private final ViewTreeObserver.OnPreDrawListener mPreDrawListener = this::onPreDraw;
+
+    private RecyclerViewTarget(@NonNull RecyclerView recyclerView, int position, long itemId) {
+        this.mRecyclerView = recyclerView;
+        this.mPosition = position;
+        this.mItemId = itemId;
+    }
+
+    @NonNull
+    public static RecyclerViewTarget forPosition(@NonNull RecyclerView recyclerView, int position) {
+        return new RecyclerViewTarget(recyclerView, position, RecyclerView.NO_ID);
+    }
+
+    /**
+     * Follows the item with the given stable id, also when it changes position. The adapter must
+     * have stable ids.
+     */
+    @NonNull
+    public static RecyclerViewTarget forItemId(@NonNull RecyclerView recyclerView, long itemId) {
+        return new RecyclerViewTarget(recyclerView, RecyclerView.NO_POSITION, itemId);
+    }
+
+    public void show(@NonNull OnboardingOverlay overlay) {
+        stopListening();
+        mOverlay = overlay;
+        mItemView = null;
+        mWaitingFrames = 0;
+        //Moves inside the same item view, e.g. item animations, are followed by the overlay itself
+        overlay.setTrackTarget(true);
+
+        View itemView = findItemView();
+        if (itemView != null) {
+            showOn(itemView);
+        } else {
+            int position = findPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                throw new IllegalArgumentException("There is no item with id " + mItemId);
+            }
+            //A single layout pass of the RecyclerView, the overlay is shown on the next frame
+            mRecyclerView.scrollToPosition(position);
+        }
+
+        mObserver = mRecyclerView.getViewTreeObserver();
+        mObserver.addOnPreDrawListener(mPreDrawListener);
+    }
+
+    /**
+     * @return the view of the item if it is bound and laid out
+     */
+    @Nullable
+    private View findItemView() {
+        RecyclerView.ViewHolder holder = mItemId != RecyclerView.NO_ID
+                ? mRecyclerView.findViewHolderForItemId(mItemId)
+                : mRecyclerView.findViewHolderForAdapterPosition(mPosition);
+        if (holder == null) {
+            return null;
+        }
+        View itemView = holder.itemView;
+        return ViewCompat.isAttachedToWindow(itemView)
+                && itemView.getWidth() > 0
+                && itemView.getHeight() > 0
+                ? itemView
+                : null;
+    }
+
+    private int findPosition() {
+        if (mItemId == RecyclerView.NO_ID) {
+            return mPosition;
+        }
+        RecyclerView.Adapter<?> adapter = mRecyclerView.getAdapter();
+        if (adapter == null) {
+            return RecyclerView.NO_POSITION;
+        }
+        //Only reads ids, nothing is bound or laid out
+        for (int i = 0, count = adapter.getItemCount(); i < count; i++) {
+            if (adapter.getItemId(i) == mItemId) {
+                return i;
+            }
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    private void showOn(@NonNull View itemView) {
+        mItemView = itemView;
+        mOverlay.show(itemView);
+    }
+
+    /**
+     * Only looks up the visible view holders, which RecyclerView keeps as its children.
+     */
+    private boolean onPreDraw() {
+        if (mOverlay == null || (mItemView != null && !mOverlay.isShowing())) {
+            //Dismissed
+            stopListening();
+            return true;
+        }
+
+        View itemView = findItemView();
+        if (itemView != null && itemView != mItemView) {
+            showOn(itemView);
+        } else if (itemView == null && mItemView != null && !mRecyclerView.isLayoutRequested()) {
+            //The item was removed, or scrolled out and recycled, there is nothing left to highlight
+            OnboardingOverlay overlay = mOverlay;
+            stopListening();
+            overlay.dismiss();
+        } else if (mItemView == null
+                && !mRecyclerView.isLayoutRequested()
+                && ++mWaitingFrames > MAX_WAITING_FRAMES) {
+            //The item was laid out without a size or was removed meanwhile
+            stopListening();
+        }
+        return true;
+    }
+
+    private void stopListening() {
+        if (mObserver != null) {
+            ViewTreeObserver observer = mObserver.isAlive()
+                    ? mObserver
+                    : mRecyclerView.getViewTreeObserver();
+            observer.removeOnPreDrawListener(mPreDrawListener);
+            mObserver = null;
+        }
+        mOverlay = null;
+        mItemView = null;
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Ids of the overlays built with {@link OnboardingOverlay.Builder#showOnce(String)} that were
+ * already shown. They are read from disk once on a background thread and kept in memory, so
+ * looking one up never touches disk. Ids marked within a short time are written back together,
+ * also on the background thread.
+ */
+public final class SeenRegistry {
+
+    private static final String PREFERENCES_NAME = "com.abrahamcuautle.onboardingoverlay.seen";
+
+    private static final String KEY_SEEN = "seen";
+
+    //Ids marked within this time are written with a single commit
+    private static final long WRITE_DELAY_MS = 500;
+
+    @Nullable
+    private static SeenRegistry sInstance;
+
+    private final Context mContext;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    //Loads and writes run one after another, a write never races the load
+    private final Executor mExecutor;
+
+    //Only touched on the main thread
+    private final Set<String> mSeen = new HashSet<>();
+
+    private boolean mIsLoaded;
+
+    @Nullable
+    private List<Runnable> mPendingActions;
+
+    private boolean mIsWriteScheduled;
+
+    private final Runnable mWriteRunnable = this::write;
+
+    @VisibleForTesting
+    SeenRegistry(@NonNull Context context, @NonNull Executor executor) {
+        mContext = context.getApplicationContext();
+        mExecutor = executor;
+        mExecutor.execute(this::load);
+    }
+
+    /**
+     * Starts loading the ids the first time it is called.
+     */
+    @MainThread
+    @NonNull
+    public static SeenRegistry get(@NonNull Context context) {
+        if (sInstance == null) {
+            sInstance = new SeenRegistry(context, Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "OnboardingOverlay-seen");
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+        return sInstance;
+    }
+
+    /**
+     * Lets the overlay with the given id show again.
+     */
+    @MainThread
+    public void forget(@NonNull String id) {
+        runWhenLoaded(() -> {
+            if (mSeen.remove(id)) {
+                scheduleWrite();
+            }
+        });
+    }
+
+    @MainThread
+    public void forgetAll() {
+        runWhenLoaded(() -> {
+            if (!mSeen.isEmpty()) {
+                mSeen.clear();
+                scheduleWrite();
+            }
+        });
+    }
+
+    boolean isLoaded() {
+        return mIsLoaded;
+    }
+
+    /**
+     * Must only be called once loaded, see {@link #runWhenLoaded(Runnable)}.
+     */
+    boolean isSeen(@NonNull String id) {
+        return mSeen.contains(id);
+    }
+
+    void markSeen(@NonNull String id) {
+        if (mSeen.add(id)) {
+            scheduleWrite();
+        }
+    }
+
+    /**
+     * Runs the action right away if the ids are loaded, otherwise on the main thread once they
+     * are.
+     */
+    void runWhenLoaded(@NonNull Runnable action) {
+        if (mIsLoaded) {
+            action.run();
+            return;
+        }
+        if (mPendingActions == null) {
+            mPendingActions = new ArrayList<>();
+        }
+        mPendingActions.add(action);
+    }
+
+    @WorkerThread
+    private void load() {
+        Set<String> stored = getPreferences().getStringSet(KEY_SEEN, null);
+        //The returned set belongs to the preferences and must not be kept
+        final Set<String> seen = stored == null ? null : new HashSet<>(stored);
+        mMainHandler.post(() -> onLoaded(seen));
+    }
+
+    private void onLoaded(@Nullable Set<String> seen) {
+        if (seen != null) {
+            mSeen.addAll(seen);
+        }
+        mIsLoaded = true;
+        if (mPendingActions != null) {
+            List<Runnable> actions = mPendingActions;
+            mPendingActions = null;
+            for (int i = 0; i < actions.size(); i++) {
+                actions.get(i).run();
+            }
+        }
+    }
+
+    private void scheduleWrite() {
+        if (!mIsWriteScheduled) {
+            mIsWriteScheduled = true;
+            mMainHandler.postDelayed(mWriteRunnable, WRITE_DELAY_MS);
+        }
+    }
+
+    private void write() {
+        mIsWriteScheduled = false;
+        final Set<String> snapshot = new HashSet<>(mSeen);
+        //commit() instead of apply(), which would make the Activity wait for it when it stops
+        mExecutor.execute(() -> getPreferences().edit()
+                .putStringSet(KEY_SEEN, snapshot)
+                .commit());
+    }
+
+    @NonNull
+    private SharedPreferences getPreferences() {
+        return mContext.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+}
@@ -0,0 +1,267 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.TypedArray;
+import android.graphics.Typeface;
+import android.text.TextUtils;
+import android.util.SparseArray;
+import android.util.TypedValue;
+import android.widget.TextView;
+
+import androidx.annotation.FontRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+/**
+ * Resolves an overlay style once per host: a single themed Context plus the title, description
+ * and button styles it points to. MaterialButton only takes a style attribute, so it still looks
+ * its style up from the cached theme. The fonts of the styles start loading in the background
+ * once resolved, see {@link FontCache}. Everything resolved is dropped when the configuration of
+ * the base Context changes.
+ */
+final class StyleCache {
+
+    private static final int[] STYLE_ATTRS = {
+            R.attr.onboardingTitleStyle,
+            R.attr.onboardingDescriptionStyle,
+            R.attr.onboardingButtonStyle
+    };
+
+    //Sorted by id, as obtainStyledAttributes expects
+    private static final int[] FONT_ATTRS = {
+            android.R.attr.textAppearance,
+            android.R.attr.fontFamily,
+            R.attr.onboardingFont
+    };
+
+    private static final int[] FAMILY_ATTRS = {android.R.attr.fontFamily};
+
+    private final Context mContext;
+
+    private final SparseArray<ResolvedStyle> mStyles = new SparseArray<>();
+
+    private final Configuration mConfiguration;
+
+    StyleCache(@NonNull Context context) {
+        mContext = context;
+        mConfiguration = new Configuration(context.getResources().getConfiguration());
+    }
+
+    @NonNull
+    ResolvedStyle get(@StyleRes int style) {
+        Configuration configuration = mContext.getResources().getConfiguration();
+        if (mConfiguration.diff(configuration) != 0) {
+            mConfiguration.setTo(configuration);
+            mStyles.clear();
+        }
+
+        ResolvedStyle resolvedStyle = mStyles.get(style);
+        if (resolvedStyle == null) {
+            resolvedStyle = resolve(style);
+            mStyles.put(style, resolvedStyle);
+        }
+        return resolvedStyle;
+    }
+
+    @NonNull
+    private ResolvedStyle resolve(@StyleRes int style) {
+        Context themedContext = new ContextThemeWrapper(
+                mContext,
+                style == 0 ? R.style.OnboardingOverlayStyle : style);
+        int titleStyle;
+        int descriptionStyle;
+        int buttonStyle;
+        TypedArray a = themedContext.obtainStyledAttributes(STYLE_ATTRS);
+        try {
+            titleStyle = a.getResourceId(0, 0);
+            descriptionStyle = a.getResourceId(1, 0);
+            buttonStyle = a.getResourceId(2, 0);
+        } finally {
+            a.recycle();
+        }
+        return new ResolvedStyle(
+                themedContext,
+                titleStyle,
+                descriptionStyle,
+                buttonStyle,
+                readFont(themedContext, titleStyle),
+                readFont(themedContext, descriptionStyle),
+                readFont(themedContext, buttonStyle));
+    }
+
+    /**
+     * An android:fontFamily of the style itself wins over the onboardingFont every style inherits
+     * from the library ones, and onboardingFont wins over the font of the text appearance, the
+     * same way it would be applied on top of it. Family names are resolved by the views, only
+     * font resources are returned. They start loading as soon as the style is resolved.
+     */
+    @FontRes
+    private static int readFont(@NonNull Context themedContext, @StyleRes int styleRes) {
+        TypedArray a = themedContext.obtainStyledAttributes(null, FONT_ATTRS, 0, styleRes);
+        int fontRes;
+        try {
+            if (a.hasValue(1) && !isThemeFamily(themedContext, a.peekValue(1))) {
+                fontRes = getFontResource(themedContext, a, 1);
+            } else if (a.hasValue(2)) {
+                fontRes = a.getResourceId(2, 0);
+            } else {
+                fontRes = readAppearanceFont(themedContext, a.getResourceId(0, 0));
+            }
+        } finally {
+            a.recycle();
+        }
+        FontCache.preload(themedContext, fontRes);
+        return fontRes;
+    }
+
+    @FontRes
+    private static int readAppearanceFont(@NonNull Context themedContext, @StyleRes int appearance) {
+        if (appearance == 0) {
+            return 0;
+        }
+        TypedArray a = themedContext.obtainStyledAttributes(appearance, FAMILY_ATTRS);
+        try {
+            return getFontResource(themedContext, a, 0);
+        } finally {
+            a.recycle();
+        }
+    }
+
+    /**
+     * Attributes a style does not set are read from the theme. A family of the whole theme is not
+     * one the style sets, the library's fonts still win over it.
+     */
+    private static boolean isThemeFamily(@NonNull Context themedContext, @NonNull TypedValue value) {
+        TypedArray theme = themedContext.obtainStyledAttributes(FAMILY_ATTRS);
+        try {
+            TypedValue themeValue = theme.peekValue(0);
+            return themeValue != null
+                    && themeValue.type == value.type
+                    && themeValue.resourceId == value.resourceId
+                    && (value.type == TypedValue.TYPE_STRING || themeValue.data == value.data)
+                    && TextUtils.equals(themeValue.string, value.string);
+        } finally {
+            theme.recycle();
+        }
+    }
+
+    /**
+     * @return the font resource of an android:fontFamily, or 0 if it is a family name
+     */
+    @FontRes
+    static int getFontResource(@NonNull Context context, @NonNull TypedArray a, int index) {
+        int resId = a.getResourceId(index, 0);
+        return resId != 0 && "font".equals(context.getResources().getResourceTypeName(resId))
+                ? resId
+                : 0;
+    }
+
+    static final class ResolvedStyle {
+
+        final Context themedContext;
+
+        @StyleRes
+        final int titleStyle;
+
+        @StyleRes
+        final int descriptionStyle;
+
+        @StyleRes
+        final int buttonStyle;
+
+        @FontRes
+        final int titleFont;
+
+        @FontRes
+        final int descriptionFont;
+
+        @FontRes
+        final int buttonFont;
+
+        final TextParams titleParams;
+
+        final TextParams descriptionParams;
+
+        ResolvedStyle(Context themedContext, int titleStyle, int descriptionStyle, int buttonStyle,
+                      int titleFont, int descriptionFont, int buttonFont) {
+            this.themedContext = themedContext;
+            this.titleStyle = titleStyle;
+            this.descriptionStyle = descriptionStyle;
+            this.buttonStyle = buttonStyle;
+            this.titleFont = titleFont;
+            this.descriptionFont = descriptionFont;
+            this.buttonFont = buttonFont;
+            this.titleParams = new TextParams(themedContext, titleStyle, titleFont);
+            this.descriptionParams = new TextParams(themedContext, descriptionStyle, descriptionFont);
+        }
+
+    }
+
+    /**
+     * Paint and line breaking params of a TextView with the given style and font, read from a
+     * TextView created once per style. Text precomputed with them can be set on the content's
+     * TextView as is.
+     */
+    static final class TextParams {
+
+        interface Callback {
+            void onParams(@NonNull PrecomputedTextCompat.Params params);
+        }
+
+        private final Context mThemedContext;
+
+        @StyleRes
+        private final int mStyle;
+
+        @FontRes
+        private final int mFont;
+
+        @Nullable
+        private PrecomputedTextCompat.Params mParams;
+
+        TextParams(Context themedContext, int style, int font) {
+            mThemedContext = themedContext;
+            mStyle = style;
+            mFont = font;
+        }
+
+        /**
+         * Calls back right away if the font of the style is loaded, otherwise once it is. Params
+         * read before that would not match the TextView by the time the text is set.
+         */
+        void get(@NonNull Callback callback) {
+            if (mParams != null) {
+                callback.onParams(mParams);
+                return;
+            }
+            Typeface typeface = FontCache.get(mThemedContext, mFont, loaded -> {
+                if (mParams == null) {
+                    mParams = create(loaded);
+                }
+                callback.onParams(mParams);
+            });
+            //Without a font, or with one that failed to load, the TextView keeps its typeface
+            if (typeface != null || !FontCache.isLoading(mFont)) {
+                mParams = create(typeface);
+                callback.onParams(mParams);
+            }
+        }
+
+        @NonNull
+        private PrecomputedTextCompat.Params create(@Nullable Typeface typeface) {
+            //Only read for its params, the view itself is never shown
+            TextView textView = new TextView(mThemedContext, null, 0, mStyle);
+            if (typeface != null) {
+                textView.setTypeface(typeface);
+            }
+            return TextViewCompat.getTextMetricsParams(textView);
+        }
+
+    }
+
+}
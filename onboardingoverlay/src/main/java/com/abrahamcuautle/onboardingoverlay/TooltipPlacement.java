@@ -0,0 +1,128 @@
+package com.abrahamcuautle.onboardingoverlay;
+
+/**
+ * Places the tooltip content around the target on the side with the most space available, an
+ * instance keeps the result of the last {@link #solve} call.
+ */
+final class TooltipPlacement {
+
+    //Same values as android.view.Gravity
+    static final int GRAVITY_TOP = 0x30;
+
+    static final int GRAVITY_BOTTOM = 0x50;
+
+    static final int GRAVITY_START = 0x00800003;
+
+    static final int GRAVITY_END = 0x00800005;
+
+    int gravity;
+
+    int width;
+
+    int leftMargin;
+
+    int topMargin;
+
+    int rightMargin;
+
+    int bottomMargin;
+
+    /**
+     * Width the content has to be measured with before calling {@link #solve}.
+     */
+    static int getContentWidth(int screenWidth, int screenHeight, Dimensions dimensions) {
+        return Math.min(screenWidth, screenHeight) - dimensions.contentMargin - dimensions.contentMargin;
+    }
+
+    /**
+     * @param contentHeight height of the content measured with {@link #getContentWidth}
+     */
+    void solve(int screenWidth, int screenHeight,
+               int targetX, int targetY, int targetWidth, int targetHeight,
+               int contentHeight, boolean isCircle, Dimensions dimensions) {
+        int contentMargin = dimensions.contentMargin;
+        int contentWidth = getContentWidth(screenWidth, screenHeight, dimensions);
+        //Extra spacing around the target plus the end radius of the pulse
+        int cutoutSpacing = (isCircle ? dimensions.circleSpacing : dimensions.rectSpacing)
+                + dimensions.pulse;
+        double radius = isCircle ? Math.hypot(targetWidth, targetHeight) / 2 : 0;
+
+        //Space Available acordding to target position
+        int leftSpaceAvailable = targetX;
+        int topSpaceAvailable = targetY;
+        int rightSpaceAvailable = screenWidth - (targetX + targetWidth);
+        int bottomSpaceAvailable = screenHeight - (targetY + targetHeight);
+
+        int maxXAxis = Math.max(topSpaceAvailable, bottomSpaceAvailable);
+        int maxYAxis = Math.max(rightSpaceAvailable, leftSpaceAvailable);
+        int maxSpace = Math.max(maxXAxis, maxYAxis);
+
+        width = contentWidth;
+        leftMargin = 0;
+        topMargin = 0;
+        rightMargin = 0;
+        bottomMargin = 0;
+
+        if (maxSpace == topSpaceAvailable) {
+            //More space available on top of the target
+            gravity = GRAVITY_BOTTOM;
+            bottomMargin = isCircle
+                    ? screenHeight - targetY - targetHeight / 2 + (int) radius + cutoutSpacing
+                    : screenHeight - targetY + cutoutSpacing;
+            leftMargin = contentMargin;
+            rightMargin = contentMargin;
+        } else if (maxSpace == bottomSpaceAvailable) {
+            //More space available on bottom of the target
+            gravity = GRAVITY_TOP;
+            topMargin = isCircle
+                    ? targetY + targetHeight / 2 + (int) Math.round(radius) + cutoutSpacing
+                    : targetY + targetHeight + cutoutSpacing;
+            leftMargin = contentMargin;
+            rightMargin = contentMargin;
+        } else if (maxSpace == leftSpaceAvailable) {
+            rightMargin = isCircle
+                    ? screenWidth - targetX - targetWidth / 2 + (int) radius + cutoutSpacing
+                    : screenWidth - targetX + cutoutSpacing;
+            width = adjustWidthToSpaceAvailable(leftSpaceAvailable, contentWidth, contentMargin);
+            gravity = GRAVITY_END | alignVertically(
+                    topSpaceAvailable, bottomSpaceAvailable,
+                    screenHeight, targetY, targetHeight, contentHeight);
+        } else {
+            leftMargin = isCircle
+                    ? targetX + targetWidth / 2 + (int) radius + cutoutSpacing
+                    : targetX + targetWidth + cutoutSpacing;
+            width = adjustWidthToSpaceAvailable(rightSpaceAvailable, contentWidth, contentMargin);
+            gravity = GRAVITY_START | alignVertically(
+                    topSpaceAvailable, bottomSpaceAvailable,
+                    screenHeight, targetY, targetHeight, contentHeight);
+        }
+    }
+
+    /**
+     * Content beside the target grows towards the side with more space, shifted back when it
+     * does not fit.
+     */
+    private int alignVertically(int topSpaceAvailable, int bottomSpaceAvailable,
+                                int screenHeight, int targetY, int targetHeight, int contentHeight) {
+        if (topSpaceAvailable > bottomSpaceAvailable) {
+            int missingBottomMargin = topSpaceAvailable > contentHeight
+                    ? 0
+                    : topSpaceAvailable - contentHeight;
+            bottomMargin = screenHeight - targetY - targetHeight - missingBottomMargin;
+            return GRAVITY_BOTTOM;
+        } else {
+            int missingTopMargin = bottomSpaceAvailable > contentHeight
+                    ? 0
+                    : bottomSpaceAvailable - contentHeight;
+            topMargin = targetY + targetHeight + missingTopMargin;
+            return GRAVITY_TOP;
+        }
+    }
+
+    private static int adjustWidthToSpaceAvailable(int spaceAvailable, int contentWidth, int contentMargin) {
+        return spaceAvailable > contentWidth
+                ? contentWidth
+                : spaceAvailable - contentMargin; //15dp for rightMargin & 15dp for leftMargin
+    }
+
+}
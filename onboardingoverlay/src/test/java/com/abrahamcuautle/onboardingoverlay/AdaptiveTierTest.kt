@@ -0,0 +1,87 @@
+package com.abrahamcuautle.onboardingoverlay
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class AdaptiveTierTest {
+
+    private fun AdaptiveTier.frames(count: Int, frameMillis: Long): Boolean {
+        var dropped = false
+        repeat(count) { dropped = onFrame(frameMillis) || dropped }
+        return dropped
+    }
+
+    @Test
+    fun lowRamDevice_neverPulses() {
+        val tier = AdaptiveTier()
+        tier.setDevice(true, 1f, 60f)
+
+        assertEquals(OnboardingOverlay.Tier.REDUCED, tier.tier)
+    }
+
+    @Test
+    fun disabledAnimations_neverPulse() {
+        val tier = AdaptiveTier()
+        tier.setDevice(false, 0f, 60f)
+
+        assertEquals(OnboardingOverlay.Tier.REDUCED, tier.tier)
+    }
+
+    @Test
+    fun smoothFrames_keepTheFullTier() {
+        val tier = AdaptiveTier()
+        tier.setDevice(false, 1f, 60f)
+
+        assertFalse(tier.frames(AdaptiveTier.SAMPLE_FRAMES, 16))
+        assertEquals(OnboardingOverlay.Tier.FULL, tier.tier)
+    }
+
+    @Test
+    fun someDroppedFrames_reduceTheTier() {
+        val tier = AdaptiveTier()
+        tier.setDevice(false, 1f, 60f)
+
+        tier.frames(AdaptiveTier.SAMPLE_FRAMES - 10, 16)
+        assertTrue(tier.frames(10, 50))
+        assertEquals(OnboardingOverlay.Tier.REDUCED, tier.tier)
+    }
+
+    @Test
+    fun mostlyDroppedFrames_dropToTheMinimalTier() {
+        val tier = AdaptiveTier()
+        tier.setDevice(false, 1f, 60f)
+
+        tier.frames(AdaptiveTier.SAMPLE_FRAMES / 2, 16)
+        assertTrue(tier.frames(AdaptiveTier.SAMPLE_FRAMES / 2, 50))
+        assertEquals(OnboardingOverlay.Tier.MINIMAL, tier.tier)
+    }
+
+    @Test
+    fun tier_neverGoesBackUp() {
+        val tier = AdaptiveTier()
+        tier.setDevice(false, 1f, 60f)
+        tier.frames(AdaptiveTier.SAMPLE_FRAMES, 50)
+
+        assertFalse(tier.frames(AdaptiveTier.SAMPLE_FRAMES, 16))
+        assertEquals(OnboardingOverlay.Tier.MINIMAL, tier.tier)
+    }
+
+    @Test
+    fun frameInterval_followsTheRefreshRate() {
+        val tier = AdaptiveTier()
+        tier.setDevice(false, 1f, 120f)
+
+        //20ms frames are fine at 60Hz, but miss vsyncs at 120Hz
+        tier.frames(AdaptiveTier.SAMPLE_FRAMES, 20)
+        assertEquals(OnboardingOverlay.Tier.MINIMAL, tier.tier)
+    }
+
+    @Test
+    fun revealDuration_isHalvedThenSkipped() {
+        assertEquals(500L, AdaptiveTier.getRevealDuration(OnboardingOverlay.Tier.FULL, 500L))
+        assertEquals(250L, AdaptiveTier.getRevealDuration(OnboardingOverlay.Tier.REDUCED, 500L))
+        assertEquals(0L, AdaptiveTier.getRevealDuration(OnboardingOverlay.Tier.MINIMAL, 500L))
+    }
+}
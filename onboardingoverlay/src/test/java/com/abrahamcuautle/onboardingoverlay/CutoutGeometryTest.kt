@@ -0,0 +1,61 @@
+package com.abrahamcuautle.onboardingoverlay
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class CutoutGeometryTest {
+
+    @Test
+    fun pulseBounds_coverTheBiggestPulsePlusOnePixel() {
+        val cutout = CutoutGeometry()
+        cutout.setRectangle(100, 200, 50, 40, 5f, 8f)
+
+        val bounds = IntArray(4)
+        cutout.getPulseBounds(8f, bounds)
+
+        assertArrayEquals(intArrayOf(86, 186, 164, 254), bounds)
+    }
+
+    @Test
+    fun pulseBounds_ofSeveralCutouts_coverAllOfThem() {
+        val first = CutoutGeometry()
+        first.setRectangle(100, 200, 50, 40, 5f, 8f)
+        val second = CutoutGeometry()
+        second.setRectangle(20, 400, 30, 30, 5f, 8f)
+
+        val bounds = IntArray(4)
+        CutoutGeometry.getPulseBounds(arrayOf(first, second), 2, 8f, bounds)
+
+        assertArrayEquals(intArrayOf(6, 186, 164, 444), bounds)
+    }
+
+    @Test
+    fun pulseBounds_onlyCoverTheCutoutsInUse() {
+        val first = CutoutGeometry()
+        first.setRectangle(100, 200, 50, 40, 5f, 8f)
+        val unused = CutoutGeometry()
+        unused.setRectangle(20, 400, 30, 30, 5f, 8f)
+
+        val bounds = IntArray(4)
+        CutoutGeometry.getPulseBounds(arrayOf(first, unused), 1, 8f, bounds)
+
+        assertArrayEquals(intArrayOf(86, 186, 164, 254), bounds)
+    }
+
+    @Test
+    fun revealRadius_reachesTheFarthestCorner() {
+        //Target near the top left corner, the bottom right one is the farthest
+        assertEquals(1000f, CutoutGeometry.getRevealRadius(100f, 200f, 700, 1000), 0f)
+    }
+
+    @Test
+    fun revealRadius_ofACenteredTarget_reachesEveryCorner() {
+        assertEquals(500f, CutoutGeometry.getRevealRadius(300f, 400f, 600, 800), 0f)
+    }
+
+    @Test
+    fun revealRadius_isRoundedUpToWholePixels() {
+        assertEquals(2f, CutoutGeometry.getRevealRadius(0f, 0f, 1, 1), 0f)
+    }
+}
@@ -0,0 +1,34 @@
+package com.abrahamcuautle.onboardingoverlay
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Test
+
+class DimensionsTest {
+
+    @Test
+    fun sameDensity_sharesTable() {
+        assertSame(Dimensions.get(2f), Dimensions.get(2f))
+    }
+
+    @Test
+    fun densityOverride_getsItsOwnTable() {
+        val system = Dimensions.get(2f)
+        val overridden = Dimensions.get(2.625f)
+
+        assertNotSame(system, overridden)
+        assertEquals(16, system.pulse)
+        assertEquals(21, overridden.pulse)
+    }
+
+    @Test
+    fun sizes_roundToNearestPixel() {
+        val dimensions = Dimensions.get(1.5f)
+
+        assertEquals(45, dimensions.contentMargin)
+        assertEquals(8, dimensions.rectSpacing)
+        assertEquals(96, dimensions.buttonMinWidth)
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.abrahamcuautle.onboardingoverlay
+
+import android.app.Activity
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.os.Bundle
+import android.os.Looper
+import android.os.Trace
+import android.view.View
+import android.view.ViewGroup
+import android.widget.FrameLayout
+import org.junit.After
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.Robolectric
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.annotation.Config
+import org.robolectric.annotation.GraphicsMode
+import org.robolectric.annotation.LooperMode
+import org.robolectric.util.ReflectionHelpers
+import org.robolectric.util.ReflectionHelpers.ClassParameter
+import java.lang.management.ManagementFactory
+
+/**
+ * Fails the build when the pulse frame, the draw of the scrim or the rebinding of an attached host
+ * start allocating. Bytes are counted per thread by the JVM, warm up runs first so class loading
+ * and lazily created state are not counted. Tracing is turned off, Robolectric keeps every traced
+ * section in memory and that would be counted as the code under test. Overlays use flat content in
+ * a framework Activity and theme, no MaterialButton is created so no MaterialComponents theme is
+ * needed.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [30])
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@LooperMode(LooperMode.Mode.PAUSED)
+class HotPathAllocationTest {
+
+    class TestActivity : Activity() {
+
+        lateinit var target: View
+
+        override fun onCreate(savedInstanceState: Bundle?) {
+            setTheme(android.R.style.Theme_Material_Light_NoActionBar)
+            super.onCreate(savedInstanceState)
+            target = View(this)
+            val content = FrameLayout(this)
+            content.addView(target, FrameLayout.LayoutParams(200, 100))
+            setContentView(content)
+        }
+    }
+
+    private val threadBean =
+            ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+
+    private lateinit var activity: TestActivity
+
+    @Before
+    fun setUp() {
+        setAppTracingAllowed(false)
+        activity = Robolectric.buildActivity(TestActivity::class.java).setup().get()
+        idle()
+    }
+
+    @After
+    fun tearDown() {
+        setAppTracingAllowed(true)
+    }
+
+    @Test
+    fun pulseFrame_allocatesNoMoreThanInvalidatingAPlainView() {
+        val background = show(buildOverlay("Title"))
+        //Robolectric's shadow of View.invalidate allocates on every call, an attached plain view
+        //tells what it costs
+        val plain = activity.target
+
+        repeat(WARM_UP_FRAMES) {
+            background.onPulseUpdate(it % 10 / 10f)
+            plain.invalidate()
+        }
+        val allocated = medianAllocatedBytes {
+            repeat(FRAMES) { background.onPulseUpdate(it % 10 / 10f) }
+        }
+        val baseline = medianAllocatedBytes {
+            repeat(FRAMES) { plain.invalidate() }
+        }
+
+        assertTrue("The pulse allocated $allocated bytes, plain view $baseline bytes",
+                allocated - baseline < FRAMES * MIN_OBJECT_BYTES / 2)
+    }
+
+    @Test
+    fun draw_allocatesNoMoreThanPlainViews() {
+        val background = show(buildOverlay("Title"))
+        val canvas = Canvas(Bitmap.createBitmap(
+                background.width, background.height, Bitmap.Config.ARGB_8888))
+        //Robolectric's shadow of View.draw allocates on every call, the same tree of plain views
+        //tells what it costs
+        val plain = FrameLayout(activity)
+        repeat(background.childCount) { plain.addView(View(activity)) }
+        plain.measure(exactly(background.width), exactly(background.height))
+        plain.layout(0, 0, background.width, background.height)
+
+        repeat(WARM_UP_FRAMES) {
+            background.draw(canvas)
+            plain.draw(canvas)
+        }
+        //Medians of a few rounds, Robolectric now and then allocates a lump in the middle of one
+        val allocated = medianAllocatedBytes {
+            repeat(FRAMES) { background.draw(canvas) }
+        }
+        val baseline = medianAllocatedBytes {
+            repeat(FRAMES) { plain.draw(canvas) }
+        }
+
+        //One object per frame adds FRAMES * MIN_OBJECT_BYTES, half of it is left to the noise
+        assertTrue("Drawing allocated $allocated bytes, plain views $baseline bytes",
+                allocated - baseline < FRAMES * MIN_OBJECT_BYTES / 2)
+    }
+
+    @Test
+    fun rebindingAnAttachedHost_staysWithinBudget() {
+        //Loads every class of the rebinding and lets the host build its content
+        repeat(WARM_UP_SHOWS) { show(buildOverlay("Warm up $it")) }
+
+        //The median, Robolectric still loads classes and grows caches on some of the shows
+        val allocated = List(SHOWS) {
+            val overlay = buildOverlay("Title $it")
+            val bytes = allocatedBytes { overlay.show(activity.target) }
+            idle()
+            bytes
+        }.sorted()[SHOWS / 2]
+
+        assertTrue("Showing allocated $allocated bytes", allocated <= SHOW_BUDGET_BYTES)
+    }
+
+    private fun buildOverlay(title: String): OnboardingOverlay =
+            OnboardingOverlay.Builder(activity)
+                    .setTitle(title)
+                    .setDescription("An onboarding experience is a way to introduce users to a new product.")
+                    .setTextButton("Got it!")
+                    .setAttachToDecorView(true)
+                    .setFlatContent(true)
+                    .build()
+
+    private fun show(overlay: OnboardingOverlay): BackgroundOverlayView {
+        overlay.show(activity.target)
+        idle()
+        return findBackground(activity.window.decorView)
+                ?: throw AssertionError("The overlay is not in the decor view")
+    }
+
+    private fun findBackground(view: View): BackgroundOverlayView? {
+        if (view is BackgroundOverlayView) {
+            return view
+        }
+        if (view is ViewGroup) {
+            for (i in 0 until view.childCount) {
+                findBackground(view.getChildAt(i))?.let { return it }
+            }
+        }
+        return null
+    }
+
+    private fun setAppTracingAllowed(allowed: Boolean) {
+        ReflectionHelpers.callStaticMethod<Unit>(Trace::class.java, "setAppTracingAllowed",
+                ClassParameter.from(Boolean::class.javaPrimitiveType, allowed))
+    }
+
+    private fun exactly(size: Int) = View.MeasureSpec.makeMeasureSpec(size, View.MeasureSpec.EXACTLY)
+
+    private fun idle() {
+        shadowOf(Looper.getMainLooper()).idle()
+    }
+
+    private inline fun medianAllocatedBytes(block: () -> Unit): Long =
+            List(ROUNDS) { allocatedBytes(block) }.sorted()[ROUNDS / 2]
+
+    private inline fun allocatedBytes(block: () -> Unit): Long {
+        val threadId = Thread.currentThread().id
+        val before = threadBean.getThreadAllocatedBytes(threadId)
+        block()
+        return threadBean.getThreadAllocatedBytes(threadId) - before
+    }
+
+    companion object {
+        private const val WARM_UP_FRAMES = 100
+
+        private const val FRAMES = 1_000
+
+        private const val ROUNDS = 5
+
+        //Smallest object on a 64 bit JVM
+        private const val MIN_OBJECT_BYTES = 16
+
+        private const val WARM_UP_SHOWS = 5
+
+        private const val SHOWS = 15
+
+        //Texts are laid out again on a rebind, everything else is reused. Measured at 10.3 KB with
+        //this setup, about half of that again is left to Robolectric and JVM updates
+        private const val SHOW_BUDGET_BYTES = 16 * 1024L
+    }
+}
@@ -0,0 +1,113 @@
+package com.abrahamcuautle.onboardingoverlay
+
+import android.app.Activity
+import android.os.Bundle
+import android.os.Looper
+import android.view.View
+import android.widget.FrameLayout
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.Robolectric
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.annotation.Config
+import org.robolectric.annotation.LooperMode
+
+/**
+ * Overlays use flat content in a framework Activity and theme, as in [HotPathAllocationTest].
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [30])
+@LooperMode(LooperMode.Mode.PAUSED)
+class OnboardingOverlayManagerTest {
+
+    class TestActivity : Activity() {
+
+        lateinit var target: View
+
+        override fun onCreate(savedInstanceState: Bundle?) {
+            setTheme(android.R.style.Theme_Material_Light_NoActionBar)
+            super.onCreate(savedInstanceState)
+            target = View(this)
+            val content = FrameLayout(this)
+            content.addView(target, FrameLayout.LayoutParams(200, 100))
+            setContentView(content)
+        }
+    }
+
+    private lateinit var activity: TestActivity
+
+    private lateinit var manager: OnboardingOverlayManager
+
+    private lateinit var host: OverlayHost
+
+    @Before
+    fun setUp() {
+        activity = Robolectric.buildActivity(TestActivity::class.java).setup().get()
+        idle()
+        manager = OnboardingOverlayManager.of(activity.target)
+        host = OverlayHost.obtain(activity, activity.target)
+    }
+
+    @Test
+    fun dismissingTheCurrentOverlay_showsTheNextOne() {
+        val first = buildOverlay("First")
+        val second = buildOverlay("Second")
+        manager.enqueue(first, activity.target, "first", OnboardingOverlayManager.PRIORITY_DEFAULT)
+        manager.enqueue(second, activity.target, "second", OnboardingOverlayManager.PRIORITY_DEFAULT)
+
+        first.dismiss()
+
+        assertTrue(host.isShowing(second))
+    }
+
+    @Test
+    fun showingDirectly_replacesTheCurrentOverlayWithoutMovingTheQueueOn() {
+        val first = buildOverlay("First")
+        val second = buildOverlay("Second")
+        val direct = buildOverlay("Direct")
+        manager.enqueue(first, activity.target, "first", OnboardingOverlayManager.PRIORITY_DEFAULT)
+        manager.enqueue(second, activity.target, "second", OnboardingOverlayManager.PRIORITY_DEFAULT)
+
+        direct.show(activity.target)
+        idle()
+
+        assertTrue(host.isShowing(direct))
+        assertFalse(host.isShowing(second))
+
+        direct.dismiss()
+
+        assertTrue(host.isShowing(second))
+    }
+
+    @Test
+    fun enqueueing_waitsForAnOverlayShownDirectly() {
+        val direct = buildOverlay("Direct")
+        val queued = buildOverlay("Queued")
+        direct.show(activity.target)
+        idle()
+
+        manager.enqueue(queued, activity.target)
+
+        assertTrue(host.isShowing(direct))
+
+        direct.dismiss()
+
+        assertTrue(host.isShowing(queued))
+    }
+
+    private fun buildOverlay(title: String): OnboardingOverlay =
+            OnboardingOverlay.Builder(activity)
+                    .setTitle(title)
+                    .setTextButton("Got it!")
+                    .setAttachToDecorView(true)
+                    .setFlatContent(true)
+                    .build()
+
+    private fun idle() {
+        shadowOf(Looper.getMainLooper()).idle()
+    }
+}
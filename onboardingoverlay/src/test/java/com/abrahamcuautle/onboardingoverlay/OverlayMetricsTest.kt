@@ -0,0 +1,64 @@
+package com.abrahamcuautle.onboardingoverlay
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class OverlayMetricsTest {
+
+    private val millis = 1_000_000L
+
+    @Test
+    fun latencyAndDwell_startAtTheFirstDraw() {
+        val metrics = OverlayMetrics()
+        metrics.onShowRequested(1_000 * millis)
+        assertTrue(metrics.isWaitingForFirstDraw)
+
+        metrics.onFirstDraw(1_040 * millis)
+        assertFalse(metrics.isWaitingForFirstDraw)
+        metrics.onDismissed(3_040 * millis, OverlayMetrics.DismissReason.BUTTON)
+
+        assertEquals(40L, metrics.showLatencyMillis)
+        assertEquals(2_000L, metrics.dwellMillis)
+        assertEquals(OverlayMetrics.DismissReason.BUTTON, metrics.dismissReason)
+    }
+
+    @Test
+    fun dismissedBeforeBeingDrawn_hasNoDwell() {
+        val metrics = OverlayMetrics()
+        metrics.onShowRequested(1_000 * millis)
+        metrics.onDismissed(1_010 * millis, OverlayMetrics.DismissReason.PROGRAMMATIC)
+
+        assertEquals(0L, metrics.showLatencyMillis)
+        assertEquals(0L, metrics.dwellMillis)
+        assertFalse(metrics.isWaitingForFirstDraw)
+    }
+
+    @Test
+    fun jankFrames_areSplitBetweenRevealAndPulse() {
+        val metrics = OverlayMetrics()
+        metrics.onShowRequested(1_000 * millis)
+        metrics.onJankFrame(true)
+        metrics.onJankFrame(false)
+        metrics.onJankFrame(false)
+
+        assertEquals(1, metrics.revealJankFrames)
+        assertEquals(2, metrics.pulseJankFrames)
+    }
+
+    @Test
+    fun showingAgain_startsFromScratch() {
+        val metrics = OverlayMetrics()
+        metrics.onShowRequested(1_000 * millis)
+        metrics.onFirstDraw(1_040 * millis)
+        metrics.onJankFrame(false)
+        metrics.onDismissed(2_000 * millis, OverlayMetrics.DismissReason.BACK)
+
+        metrics.onShowRequested(5_000 * millis)
+
+        assertTrue(metrics.isWaitingForFirstDraw)
+        assertEquals(0, metrics.pulseJankFrames)
+        assertEquals(OverlayMetrics.DismissReason.PROGRAMMATIC, metrics.dismissReason)
+    }
+}
@@ -0,0 +1,62 @@
+package com.abrahamcuautle.onboardingoverlay
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class OverlayQueueTest {
+
+    private val queue = OverlayQueue<String>()
+
+    private val firstTarget = Any()
+
+    private val secondTarget = Any()
+
+    @Test
+    fun higherPriority_isShownFirst() {
+        queue.offer("low", firstTarget, null, 0)
+        queue.offer("high", secondTarget, null, 10)
+
+        assertEquals("high", queue.poll().item)
+        assertEquals("low", queue.poll().item)
+    }
+
+    @Test
+    fun samePriority_keepsTheOrderOfTheRequests() {
+        queue.offer("first", firstTarget, "a", 0)
+        queue.offer("second", secondTarget, null, 0)
+        queue.offer("third", firstTarget, "b", 0)
+
+        assertEquals("first", queue.poll().item)
+        assertEquals("second", queue.poll().item)
+        assertEquals("third", queue.poll().item)
+        assertNull(queue.poll())
+    }
+
+    @Test
+    fun sameTargetAndKey_isDropped() {
+        assertTrue(queue.offer("first", firstTarget, "key", 0))
+        assertFalse(queue.offer("duplicate", firstTarget, "key", 10))
+        assertTrue(queue.offer("without key", firstTarget, null, 0))
+
+        assertEquals(2, queue.size())
+    }
+
+    @Test
+    fun sameKeyOnAnotherTarget_isQueued() {
+        assertTrue(queue.offer("first", firstTarget, "key", 0))
+        assertTrue(queue.offer("second", secondTarget, "key", 0))
+
+        assertEquals(2, queue.size())
+    }
+
+    @Test
+    fun polledRequest_canBeQueuedAgain() {
+        queue.offer("first", firstTarget, null, 0)
+        queue.poll()
+
+        assertTrue(queue.offer("again", firstTarget, null, 0))
+    }
+}
@@ -0,0 +1,118 @@
+package com.abrahamcuautle.onboardingoverlay
+
+import android.content.Context
+import android.os.Looper
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.annotation.Config
+import org.robolectric.annotation.LooperMode
+import java.time.Duration
+import java.util.concurrent.Executor
+
+/**
+ * Loads and writes run on an executor the test drains by hand, results come back through the
+ * paused main looper.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [30])
+@LooperMode(LooperMode.Mode.PAUSED)
+class SeenRegistryTest {
+
+    private class QueueExecutor : Executor {
+
+        val tasks = ArrayList<Runnable>()
+
+        override fun execute(command: Runnable) {
+            tasks.add(command)
+        }
+
+        fun runAll() {
+            while (tasks.isNotEmpty()) {
+                tasks.removeAt(0).run()
+            }
+        }
+    }
+
+    private val context: Context = RuntimeEnvironment.getApplication()
+
+    private val executor = QueueExecutor()
+
+    @Test
+    fun actions_waitForTheLoad() {
+        storeSeen("stored")
+        val registry = SeenRegistry(context, executor)
+        var seen: Boolean? = null
+
+        registry.runWhenLoaded { seen = registry.isSeen("stored") }
+        assertFalse(registry.isLoaded)
+        assertEquals(null, seen)
+
+        load()
+
+        assertTrue(registry.isLoaded)
+        assertEquals(true, seen)
+        assertFalse(registry.isSeen("other"))
+    }
+
+    @Test
+    fun actions_runRightAwayOnceLoaded() {
+        val registry = SeenRegistry(context, executor)
+        load()
+        var ran = false
+
+        registry.runWhenLoaded { ran = true }
+
+        assertTrue(ran)
+    }
+
+    @Test
+    fun ids_markedTogether_areWrittenOnce() {
+        val registry = SeenRegistry(context, executor)
+        load()
+
+        registry.markSeen("first")
+        registry.markSeen("second")
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(499))
+        assertTrue(executor.tasks.isEmpty())
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(1))
+        assertEquals(1, executor.tasks.size)
+        executor.runAll()
+
+        assertEquals(setOf("first", "second"), readSeen())
+    }
+
+    @Test
+    fun forget_beforeTheLoad_isAppliedOnceLoaded() {
+        storeSeen("stored")
+        val registry = SeenRegistry(context, executor)
+
+        registry.forget("stored")
+        load()
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(500))
+        executor.runAll()
+
+        assertFalse(registry.isSeen("stored"))
+        assertEquals(emptySet<String>(), readSeen())
+    }
+
+    private fun load() {
+        executor.runAll()
+        shadowOf(Looper.getMainLooper()).idle()
+    }
+
+    private fun storeSeen(vararg ids: String) {
+        preferences().edit().putStringSet("seen", ids.toSet()).commit()
+    }
+
+    private fun readSeen(): Set<String>? = preferences().getStringSet("seen", null)
+
+    private fun preferences() =
+            context.getSharedPreferences("com.abrahamcuautle.onboardingoverlay.seen", Context.MODE_PRIVATE)
+}
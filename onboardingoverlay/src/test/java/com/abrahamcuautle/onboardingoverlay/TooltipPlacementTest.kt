@@ -0,0 +1,98 @@
+package com.abrahamcuautle.onboardingoverlay
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+/**
+ * Placement on a 1080x1920 screen at density 1 with a 100x100 target and 300px high content.
+ */
+class TooltipPlacementTest {
+
+    private val placement = TooltipPlacement()
+
+    @Test
+    fun contentWidth_isShortestSideMinusMargins() {
+        assertEquals(1020, TooltipPlacement.getContentWidth(1080, 1920, Dimensions.get(1f)))
+        assertEquals(1020, TooltipPlacement.getContentWidth(1920, 1080, Dimensions.get(1f)))
+        assertEquals(960, TooltipPlacement.getContentWidth(1080, 1920, Dimensions.get(2f)))
+    }
+
+    @Test
+    fun targetOnTop_placesContentBelow() {
+        solve(0, 0, isCircle = false)
+
+        assertEquals(TooltipPlacement.GRAVITY_TOP, placement.gravity)
+        assertEquals(1020, placement.width)
+        assertEquals(100 + 5 + 8, placement.topMargin)
+        assertEquals(30, placement.leftMargin)
+        assertEquals(30, placement.rightMargin)
+    }
+
+    @Test
+    fun circleTargetOnTop_leavesRoomForTheRadius() {
+        solve(0, 0, isCircle = true)
+
+        //50 to the center, 71 of radius, 4 of spacing and 8 of pulse
+        assertEquals(TooltipPlacement.GRAVITY_TOP, placement.gravity)
+        assertEquals(50 + 71 + 4 + 8, placement.topMargin)
+    }
+
+    @Test
+    fun targetOnBottom_placesContentAbove() {
+        solve(980, 1800, isCircle = false)
+
+        assertEquals(TooltipPlacement.GRAVITY_BOTTOM, placement.gravity)
+        assertEquals(1920 - 1800 + 5 + 8, placement.bottomMargin)
+        assertEquals(0, placement.topMargin)
+    }
+
+    @Test
+    fun targetOnLeftEdge_placesContentAtItsEnd() {
+        solve(0, 900, isCircle = false)
+
+        assertEquals(TooltipPlacement.GRAVITY_START or TooltipPlacement.GRAVITY_TOP, placement.gravity)
+        assertEquals(100 + 5 + 8, placement.leftMargin)
+        assertEquals(980 - 30, placement.width)
+        assertEquals(1000, placement.topMargin)
+    }
+
+    @Test
+    fun targetOnRightEdge_placesContentAtItsStart() {
+        solve(980, 900, isCircle = true)
+
+        assertEquals(TooltipPlacement.GRAVITY_END or TooltipPlacement.GRAVITY_TOP, placement.gravity)
+        assertEquals(1080 - 980 - 50 + 70 + 4 + 8, placement.rightMargin)
+        assertEquals(0, placement.leftMargin)
+    }
+
+    @Test
+    fun contentBesideTarget_growsTowardsTheSideWithMoreSpace() {
+        placement.solve(1080, 1920, 0, 900, 100, 900, 300, false, Dimensions.get(1f))
+
+        assertEquals(TooltipPlacement.GRAVITY_START or TooltipPlacement.GRAVITY_BOTTOM, placement.gravity)
+        assertEquals(1920 - 900 - 900, placement.bottomMargin)
+    }
+
+    @Test
+    fun contentBesideTarget_isShiftedWhenItDoesNotFit() {
+        //Only 200px above the target for 300px of content
+        placement.solve(1080, 1920, 0, 200, 100, 1600, 300, false, Dimensions.get(1f))
+
+        assertEquals(TooltipPlacement.GRAVITY_START or TooltipPlacement.GRAVITY_BOTTOM, placement.gravity)
+        assertEquals(1920 - 200 - 1600 + 100, placement.bottomMargin)
+    }
+
+    @Test
+    fun solve_resetsPreviousResult() {
+        solve(980, 1800, isCircle = false)
+        solve(0, 0, isCircle = false)
+
+        assertEquals(0, placement.bottomMargin)
+        assertEquals(30, placement.leftMargin)
+        assertEquals(1020, placement.width)
+    }
+
+    private fun solve(x: Int, y: Int, isCircle: Boolean) {
+        placement.solve(1080, 1920, x, y, 100, 100, 300, isCircle, Dimensions.get(1f))
+    }
+}